@@ -0,0 +1,155 @@
+package com.example.letsdoit;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the day-status strategies of DayStatusResolver against the Firestore
+ * emulator at 50, 500 and 5,000 tasks. Start the emulator first:
+ * firebase emulators:start --only firestore
+ * The latency of each strategy is written to logcat under TAG; what each one reads is
+ * described on DayStatusResolver.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DayStatusResolverBenchmark {
+
+    private static final String TAG = "DayStatusBenchmark";
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+
+    private static FirebaseFirestore db;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        db = FirestoreProvider.get();
+        try {
+            db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        } catch (IllegalStateException e) {
+            // Already connected by another test class in this process
+        }
+    }
+
+    @Test
+    public void compareStrategies50() throws Exception {
+        runComparison(50);
+    }
+
+    @Test
+    public void compareStrategies500() throws Exception {
+        runComparison(500);
+    }
+
+    @Test
+    public void compareStrategies5000() throws Exception {
+        runComparison(5000);
+    }
+
+    private void runComparison(int taskCount) throws Exception {
+        // A fresh key per run keeps data from earlier runs out of the measurement
+        String dateKey = "bench-" + taskCount + "-" + System.currentTimeMillis();
+        List<Task> tasks = seed(taskCount, dateKey);
+        DayStatusResolver resolver = new DayStatusResolver(db);
+        int expected = taskCount / 2;
+
+        long start = System.nanoTime();
+        Map<String, TaskDayStatus> byIndex = await(l -> resolver.resolve(tasks, dateKey, l));
+        report(taskCount, "dayIndex", start);
+
+        start = System.nanoTime();
+        Map<String, TaskDayStatus> byGroup =
+                await(l -> resolver.resolveByCollectionGroup(tasks, dateKey, l));
+        report(taskCount, "collectionGroup", start);
+
+        start = System.nanoTime();
+        Map<String, TaskDayStatus> byDocument =
+                await(l -> resolver.resolvePerDocument(tasks, dateKey, l));
+        report(taskCount, "perDocument", start);
+
+        assertEquals(expected, byIndex.size());
+        assertEquals(expected, byGroup.size());
+        assertEquals(expected, byDocument.size());
+    }
+
+    /**
+     * Creates taskCount tasks; every second one gets a dailyStatus doc and a dayIndex entry,
+     * and the index is marked complete.
+     */
+    private List<Task> seed(int taskCount, String dateKey) throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        Map<String, Object> indexEntries = new HashMap<>();
+        WriteBatch batch = db.batch();
+        int writes = 0;
+
+        for (int i = 0; i < taskCount; i++) {
+            DocumentReference taskRef = db.collection("tasks").document();
+            Task task = new Task("Benchmark task " + i, "", "medium", "",
+                    new ArrayList<>(), "", "", false, "Permanent");
+            batch.set(taskRef, task);
+            writes++;
+
+            if (i % 2 == 0) {
+                TaskDayStatus dayStatus = new TaskDayStatus(dateKey, "Completed", "", 1L);
+                batch.set(taskRef.collection("dailyStatus").document(dateKey), dayStatus);
+                indexEntries.put(taskRef.getId(), dayStatus);
+                writes++;
+            }
+
+            task.setId(taskRef.getId());
+            tasks.add(task);
+
+            if (writes >= 400) {
+                Tasks.await(batch.commit(), 60, TimeUnit.SECONDS);
+                batch = db.batch();
+                writes = 0;
+            }
+        }
+        Tasks.await(batch.commit(), 60, TimeUnit.SECONDS);
+
+        Map<String, Object> dayIndex = new HashMap<>();
+        dayIndex.put("statuses", indexEntries);
+        dayIndex.put("complete", true);
+        Tasks.await(db.collection("dayIndex").document(dateKey).set(dayIndex), 60, TimeUnit.SECONDS);
+        return tasks;
+    }
+
+    private interface Resolve {
+        void run(DayStatusResolver.OnResolvedListener listener);
+    }
+
+    private Map<String, TaskDayStatus> await(Resolve resolve) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Map<String, TaskDayStatus>> result = new AtomicReference<>();
+        resolve.run(statuses -> {
+            result.set(statuses);
+            latch.countDown();
+        });
+        assertTrue("Resolver timed out", latch.await(120, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private void report(int taskCount, String strategy, long startNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        Log.i(TAG, taskCount + " tasks | " + strategy + " | latency=" + millis + "ms");
+    }
+}
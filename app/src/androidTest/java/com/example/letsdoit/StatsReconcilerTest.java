@@ -0,0 +1,130 @@
+package com.example.letsdoit;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the /stats counters TaskStatusWriter maintains against a full rebuild by
+ * StatsReconciler, on the Firestore emulator. Start the emulator first:
+ * firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+public class StatsReconcilerTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final String ALICE = "alice@example.com";
+    private static final String BOB = "bob@example.com";
+
+    private static FirebaseFirestore db;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        db = FirebaseFirestore.getInstance();
+        try {
+            db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        } catch (IllegalStateException e) {
+            // Already connected by another test class in this process
+        }
+    }
+
+    @Test
+    public void incrementalCounters_matchRebuild() throws Exception {
+        String dateKey = "stats-" + System.currentTimeMillis();
+        TaskStatusWriter writer = new TaskStatusWriter(db);
+
+        Task permanent = createTask("Permanent", false, Collections.emptyList());
+        Task permanentNeedsAi = createTask("Permanent", true, Collections.emptyList());
+        Task additional = createTask("Additional", false, Arrays.asList(ALICE, BOB));
+
+        write(writer, permanent, dateKey, "Completed", "");
+        // Completed without the required AI count still counts as pending
+        write(writer, permanentNeedsAi, dateKey, "Completed", "");
+        // Transitions must move the task between buckets, not count it twice
+        write(writer, additional, dateKey, "Completed", "");
+        write(writer, additional, dateKey, "Pending", "");
+        write(writer, additional, dateKey, "Completed", "");
+
+        DailyStats incremental = readStats(dateKey);
+        assertEquals(2, incremental.getDone());
+        assertEquals(1, incremental.getPending());
+        assertEquals(1, incremental.getPermanentDone());
+        assertEquals(1, incremental.getPermanentPending());
+        assertEquals(Long.valueOf(1), incremental.getUsers().get(ALICE).get(DailyStats.DONE));
+        assertEquals(Long.valueOf(0), incremental.getUsers().get(BOB).get(DailyStats.PENDING));
+        assertEquals(2, incremental.getDoneFor(ALICE, false));
+        assertEquals(2, incremental.getDoneFor("carol@example.com", true));
+
+        DailyStats rebuilt = await(new StatsReconciler(db).rebuild(dateKey));
+        assertSameCounters(incremental, rebuilt);
+        assertSameCounters(rebuilt, readStats(dateKey));
+    }
+
+    @Test
+    public void rebuild_repairsDriftedCounters() throws Exception {
+        String dateKey = "stats-drift-" + System.currentTimeMillis();
+        TaskStatusWriter writer = new TaskStatusWriter(db);
+        Task additional = createTask("Additional", false, Collections.singletonList(ALICE));
+        write(writer, additional, dateKey, "Completed", "");
+
+        Map<String, Object> drifted = new HashMap<>();
+        drifted.put("done", 42);
+        drifted.put("pending", 7);
+        await(db.collection("stats").document(dateKey).set(drifted));
+
+        await(new StatsReconciler(db).rebuild(dateKey));
+
+        DailyStats repaired = readStats(dateKey);
+        assertEquals(1, repaired.getDone());
+        assertEquals(0, repaired.getPending());
+        assertEquals(1, repaired.getDoneFor(ALICE, false));
+    }
+
+    private Task createTask(String taskType, boolean requireAiCount, List<String> assignedTo)
+            throws Exception {
+        DocumentReference taskRef = db.collection("tasks").document();
+        Task task = new Task("Stats task", "", "medium", "", assignedTo,
+                "", "", requireAiCount, taskType);
+        await(taskRef.set(task));
+        task.setId(taskRef.getId());
+        return task;
+    }
+
+    private void write(TaskStatusWriter writer, Task task, String dateKey,
+                       String status, String aiCount) throws Exception {
+        await(writer.writeDayStatus(task, new TaskDayStatus(dateKey, status, aiCount,
+                "Completed".equals(status) ? System.currentTimeMillis() : 0L)));
+    }
+
+    private DailyStats readStats(String dateKey) throws Exception {
+        return await(db.collection("stats").document(dateKey).get()).toObject(DailyStats.class);
+    }
+
+    private static void assertSameCounters(DailyStats expected, DailyStats actual) {
+        assertEquals(expected.getDone(), actual.getDone());
+        assertEquals(expected.getPending(), actual.getPending());
+        assertEquals(expected.getPermanentDone(), actual.getPermanentDone());
+        assertEquals(expected.getPermanentPending(), actual.getPermanentPending());
+        assertEquals(expected.getUsers(), actual.getUsers());
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, 60, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.letsdoit;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Concurrent TaskStatusWriter writes on the Firestore emulator. Start the emulator first:
+ * firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskStatusWriterTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final String ALICE = "alice@example.com";
+    private static final String BOB = "bob@example.com";
+
+    private static FirebaseFirestore db;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        db = FirebaseFirestore.getInstance();
+        try {
+            db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        } catch (IllegalStateException e) {
+            // Already connected by another test class in this process
+        }
+    }
+
+    @Test
+    public void writeUserStatus_keepsOtherUsersEntries() throws Exception {
+        String dateKey = "writer-users-" + System.currentTimeMillis();
+        TaskStatusWriter writer = new TaskStatusWriter(db);
+        Task permanent = createTask();
+
+        // Both written from the same stale task, as two devices would
+        com.google.android.gms.tasks.Task<Void> alice = writer.writeUserStatus(permanent, ALICE,
+                new TaskDayStatus(dateKey, "Completed", "", System.currentTimeMillis()));
+        com.google.android.gms.tasks.Task<Void> bob = writer.writeUserStatus(permanent, BOB,
+                new TaskDayStatus(dateKey, "Pending", "", 0L));
+        await(Tasks.whenAll(alice, bob));
+
+        Task stored = await(db.collection("tasks").document(permanent.getId()).get())
+                .toObject(Task.class);
+        assertEquals("Completed", stored.getUserStatus().get(ALICE));
+        assertEquals("Pending", stored.getUserStatus().get(BOB));
+    }
+
+    @Test
+    public void concurrentWrites_countTheTaskOnce() throws Exception {
+        String dateKey = "writer-race-" + System.currentTimeMillis();
+        // Separate writers, as two devices would have
+        Task permanent = createTask();
+
+        com.google.android.gms.tasks.Task<Void> first = new TaskStatusWriter(db).writeUserStatus(
+                permanent, ALICE,
+                new TaskDayStatus(dateKey, "Completed", "", System.currentTimeMillis()));
+        com.google.android.gms.tasks.Task<Void> second = new TaskStatusWriter(db).writeUserStatus(
+                permanent, BOB,
+                new TaskDayStatus(dateKey, "Completed", "", System.currentTimeMillis()));
+        await(Tasks.whenAll(first, second));
+
+        DailyStats stats = await(db.collection("stats").document(dateKey).get())
+                .toObject(DailyStats.class);
+        assertEquals(1, stats.getDone());
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getPermanentDone());
+    }
+
+    private Task createTask() throws Exception {
+        DocumentReference taskRef = db.collection("tasks").document();
+        Task task = new Task("Writer task", "", "medium", "", Collections.emptyList(),
+                "", "", false, "Permanent");
+        await(taskRef.set(task));
+        task.setId(taskRef.getId());
+        return task;
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, 60, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.letsdoit;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Flushes WriteQueue against the Firestore emulator through a committer that fails the
+ * transactions it is scripted to fail. Start the emulator first:
+ * firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+public class WriteQueueTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final String ALICE = "alice@example.com";
+
+    private static FirebaseFirestore db;
+    private LocalStore store;
+    // Codes the next transactions fail with, in order; once empty, they go through
+    private final Deque<FirebaseFirestoreException.Code> failures = new ArrayDeque<>();
+    private WriteQueue queue;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        db = FirebaseFirestore.getInstance();
+        try {
+            db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        } catch (IllegalStateException e) {
+            // Already connected by another test class in this process
+        }
+    }
+
+    @Before
+    public void emptyQueue() {
+        store = LocalStore.getInstance(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        for (WriteQueue.Entry entry : store.getQueuedWrites(Integer.MAX_VALUE)) {
+            store.deleteQueuedWrite(entry.getId());
+        }
+        queue = new WriteQueue(db, store, function -> {
+            FirebaseFirestoreException.Code code = failures.isEmpty() ? null : failures.poll();
+            if (code != null) {
+                return Tasks.forException(new FirebaseFirestoreException("Injected", code));
+            }
+            return db.runTransaction(function);
+        });
+    }
+
+    @Test
+    public void transientFailures_keepEntriesUntilACommitSucceeds() throws Exception {
+        String dateKey = "queue-" + System.currentTimeMillis();
+        Task first = createTask();
+        Task second = createTask();
+        store.putQueuedWrite(WriteQueue.dayStatusEntry(first.getId(), ALICE, completed(dateKey)));
+        store.putQueuedWrite(WriteQueue.dayStatusEntry(second.getId(), ALICE, completed(dateKey)));
+        failures.addAll(Arrays.asList(FirebaseFirestoreException.Code.UNAVAILABLE,
+                FirebaseFirestoreException.Code.DEADLINE_EXCEEDED));
+
+        assertFalse(queue.flush());
+        assertFalse(queue.flush());
+        List<WriteQueue.Entry> left = store.getQueuedWrites(10);
+        assertEquals(2, left.size());
+        assertEquals(2, left.get(0).getAttempts());
+
+        assertTrue(queue.flush());
+        assertTrue(store.getQueuedWrites(10).isEmpty());
+        assertEquals("Completed", statusOf(first, dateKey));
+        assertEquals("Completed", statusOf(second, dateKey));
+        assertEquals("Completed", userStatusOf(first));
+    }
+
+    @Test
+    public void redundantWrites_collapseToTheLatest() throws Exception {
+        String dateKey = "queue-collapse-" + System.currentTimeMillis();
+        Task task = createTask();
+        store.putQueuedWrite(WriteQueue.dayStatusEntry(task.getId(), ALICE, completed(dateKey)));
+        store.putQueuedWrite(WriteQueue.dayStatusEntry(task.getId(), ALICE,
+                new TaskDayStatus(dateKey, "Pending", "", 0L)));
+        assertEquals(1, store.getQueuedWrites(10).size());
+
+        assertTrue(queue.flush());
+        assertEquals("Pending", statusOf(task, dateKey));
+    }
+
+    @Test
+    public void rejectedEntry_isDroppedWithoutBlockingTheRest() throws Exception {
+        String dateKey = "queue-rejected-" + System.currentTimeMillis();
+        Task rejected = createTask();
+        Task accepted = createTask();
+        store.putQueuedWrite(WriteQueue.dayStatusEntry(rejected.getId(), ALICE, completed(dateKey)));
+        store.putQueuedWrite(WriteQueue.dayStatusEntry(accepted.getId(), ALICE, completed(dateKey)));
+        store.putQueuedWrite(WriteQueue.dayStatusEntry("missing-" + dateKey, ALICE, completed(dateKey)));
+        // The whole transaction, then the first entry on its own
+        failures.addAll(Arrays.asList(FirebaseFirestoreException.Code.PERMISSION_DENIED,
+                FirebaseFirestoreException.Code.PERMISSION_DENIED));
+
+        assertTrue(queue.flush());
+        assertTrue(store.getQueuedWrites(10).isEmpty());
+        assertFalse(await(db.collection("tasks").document(rejected.getId())
+                .collection("dailyStatus").document(dateKey).get()).exists());
+        assertEquals("Completed", statusOf(accepted, dateKey));
+    }
+
+    private Task createTask() throws Exception {
+        DocumentReference taskRef = db.collection("tasks").document();
+        Task task = new Task("Queue task", "", "medium", "", Collections.singletonList(ALICE),
+                "", "", false, "Permanent");
+        await(taskRef.set(task));
+        task.setId(taskRef.getId());
+        return task;
+    }
+
+    private static TaskDayStatus completed(String dateKey) {
+        return new TaskDayStatus(dateKey, "Completed", "", System.currentTimeMillis());
+    }
+
+    private String statusOf(Task task, String dateKey) throws Exception {
+        DocumentSnapshot snapshot = await(db.collection("tasks").document(task.getId())
+                .collection("dailyStatus").document(dateKey).get());
+        return snapshot.getString("status");
+    }
+
+    private String userStatusOf(Task task) throws Exception {
+        Task stored = await(db.collection("tasks").document(task.getId()).get())
+                .toObject(Task.class);
+        return stored.getUserStatus().get(ALICE);
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, 60, TimeUnit.SECONDS);
+    }
+}
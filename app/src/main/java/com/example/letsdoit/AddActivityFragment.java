@@ -23,7 +23,6 @@ import androidx.fragment.app.Fragment;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -57,6 +56,22 @@ public class AddActivityFragment extends Fragment implements CalendarDialogFragm
     private List<String> selectedAssignees = new ArrayList<>();
     private List<String> allUserDisplayNames = new ArrayList<>();
     private List<User> allUsers = new ArrayList<>();
+    private boolean assigneesInitialized = false;
+    private final UserDirectory.DirectoryListener directoryListener =
+            new UserDirectory.DirectoryListener() {
+                @Override
+                public void onDirectoryUpdated(UserDirectory directory) {
+                    showUsersForAssignment(directory.getMembers());
+                }
+
+                @Override
+                public void onDirectoryError(Exception e) {
+                    Log.e(TAG, "Failed to load users for assignment: " + e.getMessage());
+                    if (isAdded()) {
+                        Toast.makeText(getContext(), "Could not load users for assignment.", Toast.LENGTH_SHORT).show();
+                    }
+                }
+            };
 
     private List<String> selectedDays = new ArrayList<>();
 
@@ -87,7 +102,7 @@ public class AddActivityFragment extends Fragment implements CalendarDialogFragm
             loggedInUserRole = getArguments().getString(LoginActivity.EXTRA_USER_ROLE);
         }
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
     }
 
     @Nullable
@@ -261,28 +276,38 @@ public class AddActivityFragment extends Fragment implements CalendarDialogFragm
     }
 
 
+    /**
+     * Members come from the shared UserDirectory, usually already in memory.
+     */
     private void loadUsersForAssignment() {
-        db.collection("users")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    allUsers.clear();
-                    allUserDisplayNames.clear();
-
-                    allUserDisplayNames.add("All Team Members");
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        User user = document.toObject(User.class);
-                        allUsers.add(user);
-                        String displayName = user.getDisplayName();
-                        allUserDisplayNames.add(displayName);
-                    }
-                    autoAssignAllUsers();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load users for assignment: " + e.getMessage());
-                    Toast.makeText(getContext(), "Could not load users for assignment.", Toast.LENGTH_SHORT).show();
-                    autoAssignAllUsers();
-                });
+        UserDirectory.getInstance().addListener(directoryListener);
+    }
+
+    private void showUsersForAssignment(List<User> members) {
+        if (!isAdded()) return;
+        allUsers.clear();
+        allUserDisplayNames.clear();
+
+        allUserDisplayNames.add("All Team Members");
+
+        for (User user : members) {
+            allUsers.add(user);
+            allUserDisplayNames.add(user.getDisplayName());
+        }
+        // Later directory updates keep the admin's current selection
+        if (!assigneesInitialized) {
+            assigneesInitialized = true;
+            autoAssignAllUsers();
+        } else {
+            updateAssigneeDisplay();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        UserDirectory.getInstance().removeListener(directoryListener);
+        assigneesInitialized = false;
     }
 
     private void autoAssignAllUsers() {
@@ -27,7 +27,7 @@ public class AddMemberActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_member);
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
 
         etMemberName = findViewById(R.id.et_member_name);
         etMobileNumber = findViewById(R.id.et_mobile_number);
@@ -0,0 +1,110 @@
+// src/main/java/com/example/letsdoit/CountService.java
+package com.example.letsdoit;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuery;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.List;
+
+/**
+ * Headline totals through Firestore count() aggregations: the server returns one number
+ * instead of every document. Filters match the exact values the add/edit screens write
+ * ("Additional", role "user"). Aggregations always go to the server, so when one fails
+ * (e.g. offline) task counts fall back to counting TaskRepository's cached tasks with the
+ * client-side visibility rule.
+ * Listeners are called on the main thread; onError means no count could be produced.
+ */
+public class CountService {
+
+    private static final String TAG = "CountService";
+
+    public interface OnCountListener {
+        void onCount(long count);
+
+        default void onError(Exception e) {
+            Log.e(TAG, "Count failed", e);
+        }
+    }
+
+    private final FirebaseFirestore db;
+
+    public CountService(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Member accounts, i.e. /users documents with role "user" (always written lowercase).
+     */
+    public void countMembers(OnCountListener listener) {
+        count(db.collection("users").whereEqualTo("role", "user").count())
+                .addOnSuccessListener(listener::onCount)
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * Tasks the user can see on any date: every task for admins; otherwise all tasks
+     * except Additional ones, plus the Additional ones assigned to the user. Expressed as
+     * all - additional + assignedAdditional so tasks without a type count as Permanent,
+     * like everywhere else in the app.
+     */
+    public void countTasksVisibleTo(String email, String role, OnCountListener listener) {
+        Query tasks = db.collection("tasks");
+        if ("admin".equalsIgnoreCase(role)) {
+            count(tasks.count())
+                    .addOnSuccessListener(listener::onCount)
+                    .addOnFailureListener(e -> countCached(email, role, listener, e));
+            return;
+        }
+
+        Query additional = tasks.whereEqualTo("taskType", "Additional");
+        com.google.android.gms.tasks.Task<Long> all = count(tasks.count());
+        com.google.android.gms.tasks.Task<Long> allAdditional = count(additional.count());
+        com.google.android.gms.tasks.Task<Long> assigned =
+                count(additional.whereArrayContains("assignedTo", email).count());
+
+        Tasks.whenAllSuccess(all, allAdditional, assigned)
+                .addOnSuccessListener(results ->
+                        listener.onCount(all.getResult() - allAdditional.getResult() + assigned.getResult()))
+                .addOnFailureListener(e -> countCached(email, role, listener, e));
+    }
+
+    private static com.google.android.gms.tasks.Task<Long> count(AggregateQuery query) {
+        return query.get(AggregateSource.SERVER).continueWith(read -> {
+            AggregateQuerySnapshot snapshot = read.getResult();
+            return snapshot.getCount();
+        });
+    }
+
+    /**
+     * Client-side count with the exact visibility rule, from the in-memory task cache.
+     */
+    private static void countCached(String email, String role, OnCountListener listener,
+                                    Exception cause) {
+        TaskRepository repository = TaskRepository.getInstance();
+        if (!repository.isLoaded()) {
+            listener.onError(cause);
+            return;
+        }
+        Log.w(TAG, "count() unavailable, counting cached tasks: " + cause.getMessage());
+        boolean admin = "admin".equalsIgnoreCase(role);
+        long visible = 0;
+        for (Task task : repository.getTasks()) {
+            if (admin || !"additional".equalsIgnoreCase(task.getTaskType())
+                    || isAssigned(task, email)) {
+                visible++;
+            }
+        }
+        listener.onCount(visible);
+    }
+
+    private static boolean isAssigned(Task task, String email) {
+        List<String> assignedTo = task.getAssignedTo();
+        return assignedTo != null && assignedTo.contains(email);
+    }
+}
@@ -9,14 +9,9 @@ import android.content.SharedPreferences;
 import android.os.Handler;
 import android.util.Log;
 
-import com.google.android.gms.tasks.Tasks;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -25,15 +20,6 @@ public class DailyNotificationReceiver extends BroadcastReceiver {
 
     private static final String TAG = "DailyNotifReceiver";
 
-    private final SimpleDateFormat dateFormat =
-            new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-    private final SimpleDateFormat dayFormat =
-            new SimpleDateFormat("EEE", Locale.US);
-
-    // For daily-status docs: yyyy-MM-dd
-    private final SimpleDateFormat storageDateKeyFormat =
-            new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-
     // SharedPreferences Constants (Must match LoginActivity)
     private static final String PREFS_NAME = "LoginPrefs";
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
@@ -75,152 +61,100 @@ public class DailyNotificationReceiver extends BroadcastReceiver {
     }
 
     /**
-     * Fetch tasks visible to this user, filter by “active today”, then check each
-     * task's dailyStatus/{yyyy-MM-dd} doc to decide if it is pending.
+     * Fetch tasks visible to this user, filter by “active today”, then resolve the
+     * day's statuses (dayIndex first) to decide which tasks are pending.
      */
     private void fetchPendingTasksForUser(Context context,
                                           String userEmail,
                                           String userRole) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        FirebaseFirestore db = FirestoreProvider.get();
 
         long todayMillis = System.currentTimeMillis();
-        long dayStart = getDayStartMillis(todayMillis);
-        String dayShort =
-                dayFormat.format(new Date(todayMillis))
-                        .substring(0, 3).toLowerCase(Locale.US);
-        String dateKey = storageDateKeyFormat.format(new Date(dayStart));
+        long epochDay = DateKeys.epochDayOf(todayMillis);
+        String dateKey = DateKeys.dateKey(epochDay);
 
         Log.d(TAG, "Checking tasks for: " + new Date(todayMillis)
-                + " (day: " + dayShort + ", dateKey: " + dateKey + ")");
-
-        db.collection("tasks")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-
-                    List<Task> visibleAndActiveTasks = new ArrayList<>();
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            Task task = document.toObject(Task.class);
-                            task.setId(document.getId());
-
-                            // 1. Visibility for this user
-                            if (!isTaskVisibleToUser(task, userEmail, userRole)) {
-                                Log.d(TAG, "Task not visible to user: " + task.getTitle());
-                                continue;
-                            }
-
-                            // 2. Active today?
-                            if (!isTaskActiveToday(task, dayShort, dayStart)) {
-                                continue;
-                            }
-
-                            visibleAndActiveTasks.add(task);
-
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing task: " + e.getMessage());
-                        }
+                + " (epochDay: " + epochDay + ", dateKey: " + dateKey + ")");
+
+        // Answers from memory when the app process already has the tasks cached;
+        // otherwise only this user's tasks are read. Not cache-first: a cached query
+        // result can miss tasks created on other devices
+        TaskRepository.getInstance().fetchTasks(userEmail, userRole,
+                new TaskRepository.TaskListener() {
+                    @Override
+                    public void onTasksUpdated(List<Task> tasks) {
+                        notifyPendingTasks(context, db, tasks, userEmail, userRole, epochDay, dateKey);
                     }
 
-                    if (visibleAndActiveTasks.isEmpty()) {
-                        Log.d(TAG, "No visible/active tasks for this user today");
-                        return;
-                    }
-
-                    // Now, for each task, read its dailyStatus/{dateKey} doc to know if it is pending
-                    List<Task> pendingTasks = new ArrayList<>();
-
-                    List<com.google.android.gms.tasks.Task<DocumentSnapshot>> statusTasks =
-                            new ArrayList<>();
-
-                    for (Task task : visibleAndActiveTasks) {
-                        com.google.android.gms.tasks.Task<DocumentSnapshot> statusTask =
-                                db.collection("tasks")
-                                        .document(task.getId())
-                                        .collection("dailyStatus")
-                                        .document(dateKey)
-                                        .get()
-                                        .addOnSuccessListener(snapshot -> {
-                                            boolean isPending = isTaskPendingOnDate(task, snapshot);
-                                            if (isPending) {
-                                                pendingTasks.add(task);
-                                                Log.d(TAG, "Pending task found for user: "
-                                                        + task.getTitle());
-                                            } else {
-                                                Log.d(TAG, "Task completed already today: "
-                                                        + task.getTitle());
-                                            }
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            // On failure reading status, be conservative and treat as pending.
-                                            Log.e(TAG,
-                                                    "Error reading dailyStatus for task "
-                                                            + task.getId() + ": " + e.getMessage());
-                                            pendingTasks.add(task);
-                                        });
-
-                        statusTasks.add(statusTask);
+                    @Override
+                    public void onTasksError(Exception e) {
+                        Log.e(TAG, "Error fetching tasks, using local copy: " + e.getMessage());
+                        // Offline: remind from the tasks mirrored on the device
+                        LocalSync localSync = LocalSync.getInstance(context);
+                        LocalSync.Callback<List<Task>> fromLocal = cached ->
+                                notifyPendingTasks(context, db, cached, userEmail, userRole, epochDay, dateKey);
+                        if ("admin".equalsIgnoreCase(userRole)) {
+                            localSync.loadTasks(fromLocal);
+                        } else {
+                            localSync.loadTasksVisibleTo(userEmail, fromLocal);
+                        }
                     }
-
-                    // When all dailyStatus reads are done, show notification if needed.
-                    Tasks.whenAllComplete(statusTasks)
-                            .addOnSuccessListener(all -> {
-                                if (!pendingTasks.isEmpty()) {
-                                    Log.d(TAG, "Showing notification for "
-                                            + pendingTasks.size()
-                                            + " pending tasks (user: " + userEmail + ")");
-                                    NotificationHelper notificationHelper =
-                                            new NotificationHelper(context);
-                                    notificationHelper.showPendingTasksNotification(
-                                            pendingTasks, userEmail);
-                                } else {
-                                    Log.d(TAG,
-                                            "No pending tasks for this user - no notification shown");
-                                }
-                            })
-                            .addOnFailureListener(e -> {
-                                Log.e(TAG,
-                                        "Error waiting for daily status tasks: "
-                                                + e.getMessage());
-                            });
-
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error fetching tasks: " + e.getMessage());
                 });
     }
 
-    /**
-     * A task is pending on that date if its dailyStatus doc:
-     * - does not exist, or
-     * - exists with status != "Completed", or
-     * - requires AI count but aiCountValue is empty.
-     */
-    private boolean isTaskPendingOnDate(Task task, DocumentSnapshot snapshot) {
-        if (snapshot != null && snapshot.exists()) {
-            TaskDayStatus dayStatus = snapshot.toObject(TaskDayStatus.class);
-            if (dayStatus == null) {
-                return true;
-            }
+    private void notifyPendingTasks(Context context, FirebaseFirestore db, List<Task> tasks,
+                                    String userEmail, String userRole,
+                                    long epochDay, String dateKey) {
+        List<Task> visibleAndActiveTasks = new ArrayList<>();
 
-            String status = dayStatus.getStatus();
-            String aiCount = dayStatus.getAiCountValue();
+        for (Task task : tasks) {
+            // 1. Visibility for this user
+            if (!isTaskVisibleToUser(task, userEmail, userRole)) {
+                Log.d(TAG, "Task not visible to user: " + task.getTitle());
+                continue;
+            }
 
-            if ("Completed".equalsIgnoreCase(status)) {
-                if (task.isRequireAiCount()) {
-                    // If AI count required but missing, treat as pending
-                    return aiCount == null || aiCount.isEmpty();
-                }
-                // Completed and AI count ok => not pending
-                return false;
+            // 2. Active today?
+            if (!task.getSchedule().isActiveOn(epochDay)) {
+                continue;
             }
 
-            // Any non-completed status => pending
-            return true;
+            visibleAndActiveTasks.add(task);
+        }
+
+        if (visibleAndActiveTasks.isEmpty()) {
+            Log.d(TAG, "No visible/active tasks for this user today");
+            return;
         }
 
-        // No record for that date => Pending (not yet touched)
-        return true;
+        // Resolve the whole day in one batch to know which tasks are pending. Cache first:
+        // this device's own status writes are always in the cache
+        new DayStatusResolver(db, ReadPolicy.CACHE_FIRST).resolve(visibleAndActiveTasks, dateKey, statuses -> {
+            List<Task> pendingTasks = new ArrayList<>();
+            for (Task task : visibleAndActiveTasks) {
+                String statusForDay = DayStatusResolver.getStatusForDay(
+                        task, statuses.get(task.getId()));
+                if ("Completed".equalsIgnoreCase(statusForDay)) {
+                    Log.d(TAG, "Task completed already today: " + task.getTitle());
+                } else {
+                    pendingTasks.add(task);
+                    Log.d(TAG, "Pending task found for user: " + task.getTitle());
+                }
+            }
+
+            if (!pendingTasks.isEmpty()) {
+                Log.d(TAG, "Showing notification for "
+                        + pendingTasks.size()
+                        + " pending tasks (user: " + userEmail + ")");
+                NotificationHelper notificationHelper =
+                        new NotificationHelper(context);
+                notificationHelper.showPendingTasksNotification(
+                        pendingTasks, userEmail);
+            } else {
+                Log.d(TAG,
+                        "No pending tasks for this user - no notification shown");
+            }
+        });
     }
 
     /**
@@ -247,58 +181,4 @@ public class DailyNotificationReceiver extends BroadcastReceiver {
             return assignedTo != null && assignedTo.contains(userEmail);
         }
     }
-
-    /**
-     * Check if task is active on "today" based on type.
-     */
-    private boolean isTaskActiveToday(Task task, String dayShort, long dayStart) {
-        String taskType =
-                task.getTaskType() != null
-                        ? task.getTaskType().toLowerCase(Locale.US)
-                        : "permanent";
-
-        if (taskType.equals("permanent")) {
-            // Check if today is in selected days
-            List<String> selectedDays = task.getSelectedDays();
-            if (selectedDays != null) {
-                for (String day : selectedDays) {
-                    if (day != null &&
-                            day.trim().toLowerCase(Locale.US).equals(dayShort)) {
-                        return true;
-                    }
-                }
-            }
-            return false;
-        } else {
-            // Additional task - check date range
-            try {
-                String startDateStr = task.getStartDate();
-                String endDateStr = task.getEndDate();
-                if (startDateStr == null || startDateStr.isEmpty()
-                        || endDateStr == null || endDateStr.isEmpty()) {
-                    return false;
-                }
-
-                long startDateMillis = dateFormat.parse(startDateStr).getTime();
-                long endDateMillis = dateFormat.parse(endDateStr).getTime();
-                long startDayStart = getDayStartMillis(startDateMillis);
-                long endDayStart = getDayStartMillis(endDateMillis);
-
-                return dayStart >= startDayStart && dayStart <= endDayStart;
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing task dates: " + e.getMessage());
-                return false;
-            }
-        }
-    }
-
-    private long getDayStartMillis(long millis) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(millis);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTimeInMillis();
-    }
 }
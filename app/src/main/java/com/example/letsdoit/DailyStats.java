@@ -0,0 +1,151 @@
+package com.example.letsdoit;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.Exclude;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Denormalized /stats/{yyyy-MM-dd} counters of the tasks that have a TaskDayStatus on
+ * that date, bucketed by DayStatusResolver.getStatusForDay ("done" = Completed,
+ * "pending" = anything else):
+ * - done/pending: every task,
+ * - permanentDone/permanentPending: Permanent tasks, which every user sees,
+ * - users.{email}.done/pending: Additional tasks, counted once per assignee.
+ * Tasks without a status doc that day are pending but not counted here.
+ * TaskStatusWriter keeps the counters current; StatsReconciler rebuilds them.
+ */
+public class DailyStats {
+
+    static final String DONE = "done";
+    static final String PENDING = "pending";
+
+    private long done;
+    private long pending;
+    private long permanentDone;
+    private long permanentPending;
+    private Map<String, Map<String, Long>> users;
+
+    public DailyStats() {
+        // Required empty constructor for Firestore
+    }
+
+    public long getDone() {
+        return done;
+    }
+
+    public void setDone(long done) {
+        this.done = done;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public long getPermanentDone() {
+        return permanentDone;
+    }
+
+    public void setPermanentDone(long permanentDone) {
+        this.permanentDone = permanentDone;
+    }
+
+    public long getPermanentPending() {
+        return permanentPending;
+    }
+
+    public void setPermanentPending(long permanentPending) {
+        this.permanentPending = permanentPending;
+    }
+
+    public Map<String, Map<String, Long>> getUsers() {
+        return users != null ? users : new HashMap<>();
+    }
+
+    public void setUsers(Map<String, Map<String, Long>> users) {
+        this.users = users;
+    }
+
+    /**
+     * Done tasks as the dashboard counts them: all of them for admins, otherwise the
+     * Permanent ones plus the Additional ones assigned to the user.
+     */
+    @Exclude
+    public long getDoneFor(String email, boolean admin) {
+        if (admin) {
+            return done;
+        }
+        Map<String, Long> counts = getUsers().get(email);
+        Long userDone = counts != null ? counts.get(DONE) : null;
+        return permanentDone + (userDone != null ? userDone : 0L);
+    }
+
+    /**
+     * Bucket a task's status falls in, or null when it has no status doc.
+     */
+    @Nullable
+    static String bucketOf(Task task, @Nullable TaskDayStatus dayStatus) {
+        if (dayStatus == null) {
+            return null;
+        }
+        return "Completed".equals(DayStatusResolver.getStatusForDay(task, dayStatus)) ? DONE : PENDING;
+    }
+
+    /**
+     * Counters from scratch, as StatsReconciler computes them from raw dailyStatus docs.
+     */
+    static DailyStats compute(Collection<Task> tasks, Map<String, TaskDayStatus> statusByTaskId) {
+        DailyStats stats = new DailyStats();
+        stats.users = new HashMap<>();
+        for (Task task : tasks) {
+            String bucket = bucketOf(task, statusByTaskId.get(task.getId()));
+            if (bucket != null) {
+                stats.add(task, bucket, 1);
+            }
+        }
+        return stats;
+    }
+
+    private void add(Task task, String bucket, long delta) {
+        boolean isDone = DONE.equals(bucket);
+        if (isDone) {
+            done += delta;
+        } else {
+            pending += delta;
+        }
+        if (isPermanent(task)) {
+            if (isDone) {
+                permanentDone += delta;
+            } else {
+                permanentPending += delta;
+            }
+            return;
+        }
+        List<String> assignedTo = task.getAssignedTo();
+        if (assignedTo == null) {
+            return;
+        }
+        for (String email : assignedTo) {
+            Map<String, Long> counts = users.get(email);
+            if (counts == null) {
+                counts = new HashMap<>();
+                counts.put(DONE, 0L);
+                counts.put(PENDING, 0L);
+                users.put(email, counts);
+            }
+            counts.put(bucket, counts.get(bucket) + delta);
+        }
+    }
+
+    static boolean isPermanent(Task task) {
+        return task.getTaskType() == null || "permanent".equalsIgnoreCase(task.getTaskType());
+    }
+}
@@ -0,0 +1,157 @@
+// src/main/java/com/example/letsdoit/DashboardCache.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Last dashboard HomeFragment computed for each user and date, so the home tab can paint
+ * it immediately and revalidate in the background (stale-while-revalidate). Stored as one
+ * small JSON entry per "email|dateKey" in its own SharedPreferences file; only the most
+ * recent MAX_ENTRIES dashboards are kept.
+ */
+public class DashboardCache {
+
+    private static final String TAG = "DashboardCache";
+    private static final String PREFS_NAME = "DashboardCache";
+    private static final int MAX_ENTRIES = 31;
+
+    /**
+     * Active task ids and Done count of one computed dashboard; the other counts and the
+     * pie fraction derive from them.
+     */
+    public static class Snapshot {
+        private final List<String> taskIds;
+        private final int done;
+        private final long computedAt;
+
+        public Snapshot(List<String> taskIds, int done, long computedAt) {
+            this.taskIds = Collections.unmodifiableList(new ArrayList<>(taskIds));
+            this.done = done;
+            this.computedAt = computedAt;
+        }
+
+        public int getTotal() {
+            return taskIds.size();
+        }
+
+        public int getDone() {
+            return done;
+        }
+
+        public int getPending() {
+            return getTotal() - done;
+        }
+
+        public float getDoneFraction() {
+            int total = getTotal();
+            return total == 0 ? 0 : (float) getDone() / total;
+        }
+
+        public List<String> getTaskIds() {
+            return taskIds;
+        }
+
+        public long getComputedAt() {
+            return computedAt;
+        }
+    }
+
+    private final SharedPreferences prefs;
+
+    public DashboardCache(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Nullable
+    public Snapshot get(String email, String dateKey) {
+        String json = prefs.getString(key(email, dateKey), null);
+        if (json == null) {
+            return null;
+        }
+        try {
+            JSONObject object = new JSONObject(json);
+            return new Snapshot(toList(object.getJSONArray("taskIds")),
+                    object.getInt("done"),
+                    object.getLong("computedAt"));
+        } catch (JSONException e) {
+            Log.e(TAG, "Dropping unreadable dashboard " + dateKey, e);
+            prefs.edit().remove(key(email, dateKey)).apply();
+            return null;
+        }
+    }
+
+    /**
+     * Saves the dashboard asynchronously (SharedPreferences.apply()).
+     */
+    public void put(String email, String dateKey, Snapshot snapshot) {
+        JSONObject object = new JSONObject();
+        try {
+            object.put("taskIds", new JSONArray(snapshot.getTaskIds()));
+            object.put("done", snapshot.getDone());
+            object.put("computedAt", snapshot.getComputedAt());
+        } catch (JSONException e) {
+            Log.e(TAG, "Error encoding dashboard " + dateKey, e);
+            return;
+        }
+        SharedPreferences.Editor editor = prefs.edit();
+        editor.putString(key(email, dateKey), object.toString());
+        evictOldest(editor, key(email, dateKey));
+        editor.apply();
+    }
+
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+
+    private void evictOldest(SharedPreferences.Editor editor, String keep) {
+        Map<String, ?> all = prefs.getAll();
+        if (all.size() < MAX_ENTRIES) {
+            return;
+        }
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            if (entry.getKey().equals(keep) || !(entry.getValue() instanceof String)) {
+                continue;
+            }
+            try {
+                long computedAt = new JSONObject((String) entry.getValue()).optLong("computedAt");
+                if (computedAt < oldest) {
+                    oldest = computedAt;
+                    oldestKey = entry.getKey();
+                }
+            } catch (JSONException e) {
+                oldestKey = entry.getKey();
+                break;
+            }
+        }
+        if (oldestKey != null) {
+            editor.remove(oldestKey);
+        }
+    }
+
+    private static String key(String email, String dateKey) {
+        return email + "|" + dateKey;
+    }
+
+    private static List<String> toList(JSONArray array) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            list.add(array.optString(i));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,143 @@
+// src/main/java/com/example/letsdoit/DashboardSnapshot.java
+package com.example.letsdoit;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable dashboard of one user and date: the tasks active that day and, once their
+ * statuses are resolved, the Done and Pending lists the drill-down dialogs show. Built in
+ * one pass from a complete status map (or from the /stats Done counter alone, without
+ * lists), so nothing depends on the order reads come back in. The static builders are
+ * pure and run on HomeFragment's background thread.
+ */
+public class DashboardSnapshot {
+
+    private final String dateKey;
+    private final List<Task> tasks;
+    @Nullable
+    private final List<Task> doneTasks;
+    @Nullable
+    private final List<Task> pendingTasks;
+    private final int done;
+
+    private DashboardSnapshot(String dateKey, List<Task> tasks, @Nullable List<Task> doneTasks,
+                              @Nullable List<Task> pendingTasks, int done) {
+        this.dateKey = dateKey;
+        this.tasks = tasks;
+        this.doneTasks = doneTasks;
+        this.pendingTasks = pendingTasks;
+        this.done = done;
+    }
+
+    /**
+     * Tasks the user sees on epochDay: every task for admins, otherwise Permanent ones and
+     * the Additional ones assigned to them; then only those scheduled that day.
+     */
+    public static List<Task> activeTasks(List<Task> tasks, String email, String role,
+                                         long epochDay) {
+        boolean isAdmin = "admin".equalsIgnoreCase(role);
+        List<Task> active = new ArrayList<>();
+        for (Task t : tasks) {
+            String type = t.getTaskType() != null
+                    ? t.getTaskType().toLowerCase(Locale.US) : "permanent";
+            if (!isAdmin && type.equals("additional")) {
+                List<String> assigned = t.getAssignedTo();
+                if (assigned == null || !assigned.contains(email)) continue;
+            }
+            if (t.getSchedule().isActiveOn(epochDay)) {
+                active.add(t);
+            }
+        }
+        return Collections.unmodifiableList(active);
+    }
+
+    /**
+     * Splits the active tasks by their status for the day; tasks missing from the map
+     * are Pending.
+     */
+    public static DashboardSnapshot fromStatuses(String dateKey, List<Task> activeTasks,
+                                                 Map<String, TaskDayStatus> statuses) {
+        List<Task> doneTasks = new ArrayList<>();
+        List<Task> pendingTasks = new ArrayList<>();
+        for (Task t : activeTasks) {
+            String statusForDay = DayStatusResolver.getStatusForDay(t, statuses.get(t.getId()));
+            if ("Completed".equalsIgnoreCase(statusForDay)) {
+                doneTasks.add(t);
+            } else {
+                pendingTasks.add(t);
+            }
+        }
+        return new DashboardSnapshot(dateKey, Collections.unmodifiableList(new ArrayList<>(activeTasks)),
+                Collections.unmodifiableList(doneTasks), Collections.unmodifiableList(pendingTasks),
+                doneTasks.size());
+    }
+
+    /**
+     * Counts only, from a Done counter. The counter can briefly include tasks edited out
+     * of the day, so it is capped at the number of active tasks.
+     */
+    public static DashboardSnapshot fromDoneCount(String dateKey, List<Task> activeTasks,
+                                                  long done) {
+        int capped = (int) Math.max(0, Math.min(done, activeTasks.size()));
+        return new DashboardSnapshot(dateKey, Collections.unmodifiableList(new ArrayList<>(activeTasks)),
+                null, null, capped);
+    }
+
+    public String getDateKey() {
+        return dateKey;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int getTotal() {
+        return tasks.size();
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public int getPending() {
+        return getTotal() - done;
+    }
+
+    public float getDoneFraction() {
+        int total = getTotal();
+        return total == 0 ? 0 : (float) done / total;
+    }
+
+    public int getDonePercent() {
+        return Math.round(getDoneFraction() * 100);
+    }
+
+    /**
+     * False for a counts-only snapshot; its lists need the day's statuses first.
+     */
+    public boolean hasLists() {
+        return doneTasks != null;
+    }
+
+    public List<Task> getDoneTasks() {
+        return doneTasks != null ? doneTasks : Collections.emptyList();
+    }
+
+    public List<Task> getPendingTasks() {
+        return pendingTasks != null ? pendingTasks : Collections.emptyList();
+    }
+
+    public List<String> getTaskIds() {
+        List<String> taskIds = new ArrayList<>();
+        for (Task t : tasks) {
+            taskIds.add(t.getId());
+        }
+        return taskIds;
+    }
+}
@@ -0,0 +1,119 @@
+// src/main/java/com/example/letsdoit/DateKeys.java
+package com.example.letsdoit;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Date handling shared by the screens, the receiver and background work. Built on
+ * immutable java.time formatters (desugared below API 26), so every method is safe to
+ * call from any thread and nothing allocates a formatter per call.
+ * - date key: "yyyy-MM-dd", the id of /tasks/{id}/dailyStatus and /dayIndex docs,
+ * - epoch day: local calendar days since 1970-01-01, as used by TaskSchedule.
+ */
+public final class DateKeys {
+
+    private static final DateTimeFormatter DATE_KEY = DateTimeFormatter.ISO_LOCAL_DATE;
+    // Same pattern as the startDate/endDate strings stored on tasks
+    private static final DateTimeFormatter DISPLAY_DATE =
+            DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.US);
+    private static final DateTimeFormatter DAY_OF_WEEK =
+            DateTimeFormatter.ofPattern("EEEE", Locale.US);
+    private static final DateTimeFormatter TIMESTAMP_DATE =
+            DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.getDefault());
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("hh:mm a", Locale.getDefault());
+    private static final DateTimeFormatter TIMESTAMP_DATE_TIME =
+            DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
+
+    // Screens only ever touch a few weeks of days; the cap just bounds a long-lived process
+    private static final int MAX_CACHED_KEYS = 1024;
+    private static final ConcurrentHashMap<Long, String> keyByEpochDay = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Long> epochDayByKey = new ConcurrentHashMap<>();
+
+    private DateKeys() {
+    }
+
+    public static long epochDayOf(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    public static long startOfDayMillis(long millis) {
+        return LocalDate.ofEpochDay(epochDayOf(millis))
+                .atStartOfDay(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli();
+    }
+
+    public static String dateKey(long epochDay) {
+        String key = keyByEpochDay.get(epochDay);
+        if (key == null) {
+            key = LocalDate.ofEpochDay(epochDay).format(DATE_KEY);
+            trimCaches();
+            keyByEpochDay.put(epochDay, key);
+            epochDayByKey.put(key, epochDay);
+        }
+        return key;
+    }
+
+    public static String dateKeyOf(long millis) {
+        return dateKey(epochDayOf(millis));
+    }
+
+    public static long epochDay(String dateKey) {
+        Long epochDay = epochDayByKey.get(dateKey);
+        if (epochDay == null) {
+            epochDay = LocalDate.parse(dateKey, DATE_KEY).toEpochDay();
+            trimCaches();
+            epochDayByKey.put(dateKey, epochDay);
+            keyByEpochDay.put(epochDay, dateKey);
+        }
+        return epochDay;
+    }
+
+    /**
+     * "Jan 05, 2025", the format of the date indicators and of task start/end dates.
+     */
+    public static String formatDisplayDate(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(DISPLAY_DATE);
+    }
+
+    /**
+     * "Monday"
+     */
+    public static String formatDayOfWeek(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(DAY_OF_WEEK);
+    }
+
+    /**
+     * Task creation date in the device locale, for list rows.
+     */
+    public static String formatTimestampDate(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(TIMESTAMP_DATE);
+    }
+
+    /**
+     * Completion time in the device locale, e.g. "Jan 05, 2025 at 09:30 AM".
+     */
+    public static String formatTimestampDateTime(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(TIMESTAMP_DATE_TIME);
+    }
+
+    /**
+     * Time of day in the device locale, e.g. "09:30 AM".
+     */
+    public static String formatTime(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(TIME);
+    }
+
+    private static void trimCaches() {
+        if (keyByEpochDay.size() >= MAX_CACHED_KEYS) {
+            keyByEpochDay.clear();
+            epochDayByKey.clear();
+        }
+    }
+}
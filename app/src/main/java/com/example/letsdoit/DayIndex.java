@@ -0,0 +1,36 @@
+package com.example.letsdoit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Denormalized /dayIndex/{yyyy-MM-dd} document: every TaskDayStatus written for that
+ * date, keyed by task ID, so a whole day can be resolved with a single read.
+ * complete is set once every day doc of the date is known to be in statuses; only then
+ * does a missing entry mean the task has no status that day.
+ */
+public class DayIndex {
+
+    private Map<String, TaskDayStatus> statuses;
+    private boolean complete;
+
+    public DayIndex() {
+        // Required empty constructor for Firestore
+    }
+
+    public Map<String, TaskDayStatus> getStatuses() {
+        return statuses != null ? statuses : new HashMap<>();
+    }
+
+    public void setStatuses(Map<String, TaskDayStatus> statuses) {
+        this.statuses = statuses;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,272 @@
+// src/main/java/com/example/letsdoit/DayStatusResolver.java
+package com.example.letsdoit;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the TaskDayStatus of a whole list of tasks for one date, asynchronously.
+ * Strategies, cheapest first:
+ * 1. the /dayIndex/{yyyy-MM-dd} document (one read for the whole day), once it is marked
+ *    complete,
+ * 2. one collectionGroup("dailyStatus") query filtered on dateKey, for dates whose index
+ *    is missing or incomplete; the answer is written back and the index marked complete,
+ * 3. one parallel read per /tasks/{taskId}/dailyStatus/{yyyy-MM-dd} doc, when the
+ *    collection-group index for dateKey has not been deployed.
+ * The listener is always called on the main thread.
+ */
+public class DayStatusResolver {
+
+    private static final String TAG = "DayStatusResolver";
+
+    public interface OnResolvedListener {
+        void onResolved(Map<String, TaskDayStatus> statusByTaskId);
+    }
+
+    public interface OnDayResolvedListener {
+        /**
+         * fromServer is false for the mirrored statuses delivered first.
+         */
+        void onResolved(Map<String, TaskDayStatus> statusByTaskId, boolean fromServer);
+    }
+
+    // Set once the backend reports the dateKey collection-group index is missing,
+    // so later resolves go straight to per-document reads.
+    private static volatile boolean collectionGroupIndexMissing = false;
+
+    private final FirebaseFirestore db;
+    private final ReadPolicy dayIndexPolicy;
+
+    public DayStatusResolver(FirebaseFirestore db) {
+        this(db, ReadPolicy.DEFAULT);
+    }
+
+    /**
+     * dayIndexPolicy applies to the /dayIndex read that answers most resolves; the
+     * fallback reads always use the default source.
+     */
+    public DayStatusResolver(FirebaseFirestore db, ReadPolicy dayIndexPolicy) {
+        this.db = db;
+        this.dayIndexPolicy = dayIndexPolicy;
+    }
+
+    /**
+     * Reads the day status of every task for the given date key. Tasks without a
+     * dailyStatus document (or whose read failed) are simply absent from the map.
+     */
+    public void resolve(List<Task> tasks, String dateKey, OnResolvedListener listener) {
+        if (tasks.isEmpty()) {
+            listener.onResolved(new HashMap<>());
+            return;
+        }
+
+        dayIndexPolicy.get(db.collection("dayIndex").document(dateKey))
+                .addOnSuccessListener(snapshot -> {
+                    DayIndex dayIndex = snapshot.exists() ? snapshot.toObject(DayIndex.class) : null;
+                    if (dayIndex == null || !dayIndex.isComplete()) {
+                        // Until the date is marked complete, a task missing from the index
+                        // may still have a day doc
+                        resolveByCollectionGroup(tasks, dateKey, listener);
+                        return;
+                    }
+                    Map<String, TaskDayStatus> indexed = dayIndex.getStatuses();
+                    Map<String, TaskDayStatus> statusByTaskId = new HashMap<>();
+                    for (Task task : tasks) {
+                        TaskDayStatus dayStatus = indexed.get(task.getId());
+                        if (dayStatus != null) {
+                            statusByTaskId.put(task.getId(), dayStatus);
+                        }
+                    }
+                    listener.onResolved(statusByTaskId);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error reading dayIndex " + dateKey + ": " + e.getMessage());
+                    resolveByCollectionGroup(tasks, dateKey, listener);
+                });
+    }
+
+    /**
+     * Offline-first resolve for screens: the listener is called with the mirrored statuses
+     * of the date as soon as they are read (if there are any), then again with the
+     * server answer reconciled into the mirror. Pending local writes win over both.
+     */
+    public void resolveWithLocal(LocalSync localSync, List<Task> tasks, String dateKey,
+                                 OnDayResolvedListener listener) {
+        boolean[] serverAnswered = {false};
+        localSync.loadDayStatuses(dateKey, cached -> {
+            if (!serverAnswered[0] && !cached.isEmpty()) {
+                listener.onResolved(cached, false);
+            }
+        });
+        resolve(tasks, dateKey, statuses -> localSync.mergeDayStatuses(dateKey, statuses, merged -> {
+            serverAnswered[0] = true;
+            listener.onResolved(merged, true);
+        }));
+    }
+
+    /**
+     * Resolves a whole day with one collection-group query on the dateKey field and maps
+     * each result back to its task through the parent reference
+     * (/tasks/{taskId}/dailyStatus/{dateKey}). Every day doc of the date is then in hand,
+     * so they are merged into /dayIndex and the index marked complete. Falls back to
+     * per-document reads when the collection-group index is missing.
+     */
+    void resolveByCollectionGroup(List<Task> tasks, String dateKey,
+                                  OnResolvedListener listener) {
+        if (collectionGroupIndexMissing) {
+            resolvePerDocument(tasks, dateKey, listener);
+            return;
+        }
+
+        Set<String> wanted = new HashSet<>();
+        for (Task task : tasks) {
+            if (task.getId() != null) {
+                wanted.add(task.getId());
+            }
+        }
+
+        db.collectionGroup("dailyStatus")
+                .whereEqualTo("dateKey", dateKey)
+                .get()
+                .addOnSuccessListener(snapshots -> {
+                    Map<String, TaskDayStatus> allStatuses = new HashMap<>();
+                    Map<String, TaskDayStatus> statusByTaskId = new HashMap<>();
+                    for (QueryDocumentSnapshot document : snapshots) {
+                        DocumentReference taskRef = document.getReference().getParent().getParent();
+                        if (taskRef == null) {
+                            continue;
+                        }
+                        TaskDayStatus dayStatus = document.toObject(TaskDayStatus.class);
+                        allStatuses.put(taskRef.getId(), dayStatus);
+                        if (wanted.contains(taskRef.getId())) {
+                            statusByTaskId.put(taskRef.getId(), dayStatus);
+                        }
+                    }
+                    listener.onResolved(statusByTaskId);
+                    if (!snapshots.getMetadata().isFromCache()) {
+                        completeDayIndex(dateKey, allStatuses);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (e instanceof FirebaseFirestoreException
+                            && ((FirebaseFirestoreException) e).getCode()
+                            == FirebaseFirestoreException.Code.FAILED_PRECONDITION) {
+                        Log.w(TAG, "dailyStatus.dateKey collection-group index missing, "
+                                + "using per-document reads");
+                        collectionGroupIndexMissing = true;
+                    } else {
+                        Log.e(TAG, "Error querying dailyStatus for " + dateKey + ": " + e.getMessage());
+                    }
+                    resolvePerDocument(tasks, dateKey, listener);
+                });
+    }
+
+    /**
+     * Merges the statuses of a collection-group answer into /dayIndex/{dateKey} and marks
+     * it complete. Entries already in the index are kept: TaskStatusWriter may have
+     * replaced a day doc since the query ran, and it updates the index in the same
+     * transaction.
+     */
+    private void completeDayIndex(String dateKey, Map<String, TaskDayStatus> allStatuses) {
+        DocumentReference indexRef = db.collection("dayIndex").document(dateKey);
+        db.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(indexRef);
+            DayIndex current = snapshot.exists() ? snapshot.toObject(DayIndex.class) : null;
+            Map<String, TaskDayStatus> indexed = current != null
+                    ? current.getStatuses() : new HashMap<>();
+
+            Map<String, Object> missing = new HashMap<>();
+            for (Map.Entry<String, TaskDayStatus> entry : allStatuses.entrySet()) {
+                if (!indexed.containsKey(entry.getKey())) {
+                    missing.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Map<String, Object> update = new HashMap<>();
+            update.put("statuses", missing);
+            update.put("complete", true);
+            transaction.set(indexRef, update, SetOptions.merge());
+            return null;
+        }).addOnFailureListener(e ->
+                Log.e(TAG, "Error completing dayIndex " + dateKey + ": " + e.getMessage()));
+    }
+
+    /**
+     * Last-resort strategy: one parallel read per task.
+     */
+    void resolvePerDocument(List<Task> tasks, String dateKey, OnResolvedListener listener) {
+        Set<String> seen = new HashSet<>();
+        List<String> taskIds = new ArrayList<>();
+        List<com.google.android.gms.tasks.Task<DocumentSnapshot>> reads = new ArrayList<>();
+
+        for (Task task : tasks) {
+            if (task.getId() == null || !seen.add(task.getId())) {
+                continue;
+            }
+            taskIds.add(task.getId());
+            reads.add(db.collection("tasks")
+                    .document(task.getId())
+                    .collection("dailyStatus")
+                    .document(dateKey)
+                    .get());
+        }
+
+        if (reads.isEmpty()) {
+            listener.onResolved(new HashMap<>());
+            return;
+        }
+
+        Tasks.whenAllComplete(reads).addOnCompleteListener(all -> {
+            Map<String, TaskDayStatus> statusByTaskId = new HashMap<>();
+            for (int i = 0; i < reads.size(); i++) {
+                com.google.android.gms.tasks.Task<DocumentSnapshot> read = reads.get(i);
+                if (!read.isSuccessful()) {
+                    Log.e(TAG, "Error reading dailyStatus for task " + taskIds.get(i)
+                            + ": " + read.getException());
+                    continue;
+                }
+                DocumentSnapshot snapshot = read.getResult();
+                if (snapshot != null && snapshot.exists()) {
+                    TaskDayStatus dayStatus = snapshot.toObject(TaskDayStatus.class);
+                    if (dayStatus != null) {
+                        statusByTaskId.put(taskIds.get(i), dayStatus);
+                    }
+                }
+            }
+            listener.onResolved(statusByTaskId);
+        });
+    }
+
+    /**
+     * "Completed" only when the day doc says so and the AI count rule is satisfied,
+     * otherwise "Pending". A missing doc means the task was not touched that day.
+     */
+    public static String getStatusForDay(Task task, @Nullable TaskDayStatus dayStatus) {
+        if (dayStatus == null) {
+            return "Pending";
+        }
+        if ("Completed".equalsIgnoreCase(dayStatus.getStatus())) {
+            String aiCount = dayStatus.getAiCountValue();
+            if (task.isRequireAiCount() && (aiCount == null || aiCount.isEmpty())) {
+                return "Pending";
+            }
+            return "Completed";
+        }
+        return "Pending";
+    }
+}
@@ -13,12 +13,16 @@ import android.widget.RadioGroup;
 import android.widget.CheckBox;
 import android.widget.Toast;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.textfield.TextInputEditText;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -49,6 +53,8 @@ public class EditTaskActivity extends AppCompatActivity {
     private List<String> selectedAssignees = new ArrayList<>();
     private List<String> allUserDisplayNames = new ArrayList<>();
     private List<User> allUsers = new ArrayList<>();
+    @Nullable
+    private UserDirectory.DirectoryListener directoryListener;
 
     private List<String> selectedDays = new ArrayList<>();
 
@@ -69,7 +75,7 @@ public class EditTaskActivity extends AppCompatActivity {
             return;
         }
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
 
         loadUsersForAssignment(this::loadTaskData);
     }
@@ -188,10 +194,22 @@ public class EditTaskActivity extends AppCompatActivity {
         updateAssigneeDisplay();
     }
 
+    /**
+     * The task being edited, served from TaskRepository when it is already cached
+     * (its snapshot listener keeps it current) and read from Firestore otherwise.
+     */
+    private com.google.android.gms.tasks.Task<Task> fetchTask() {
+        Task cached = TaskRepository.getInstance().getTask(taskId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        return db.collection("tasks").document(taskId).get()
+                .continueWith(read -> read.getResult().toObject(Task.class));
+    }
+
     private void loadTaskData() {
-        db.collection("tasks").document(taskId).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    Task task = documentSnapshot.toObject(Task.class);
+        fetchTask()
+                .addOnSuccessListener(task -> {
                     if (task != null) {
                         populateTaskFields(task);
                     } else {
@@ -251,28 +269,51 @@ public class EditTaskActivity extends AppCompatActivity {
         updateAssigneeDisplay();
     }
 
+    /**
+     * Members come from the shared UserDirectory, usually already in memory; onComplete
+     * runs after the first delivery (or failure), later updates only refresh the lists.
+     */
     private void loadUsersForAssignment(Runnable onComplete) {
-        db.collection("users")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    allUsers.clear();
-                    allUserDisplayNames.clear();
-
-                    allUserDisplayNames.add("All Team Members");
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        User user = document.toObject(User.class);
-                        allUsers.add(user);
-                        String displayName = user.getDisplayName();
-                        allUserDisplayNames.add(displayName);
-                    }
+        boolean[] completed = {false};
+        directoryListener = new UserDirectory.DirectoryListener() {
+            @Override
+            public void onDirectoryUpdated(UserDirectory directory) {
+                allUsers.clear();
+                allUserDisplayNames.clear();
+
+                allUserDisplayNames.add("All Team Members");
+
+                for (User user : directory.getMembers()) {
+                    allUsers.add(user);
+                    allUserDisplayNames.add(user.getDisplayName());
+                }
+                if (!completed[0]) {
+                    completed[0] = true;
                     onComplete.run();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load users for assignment: " + e.getMessage());
-                    Toast.makeText(this, "Could not load users for assignment.", Toast.LENGTH_SHORT).show();
+                } else {
+                    updateAssigneeDisplay();
+                }
+            }
+
+            @Override
+            public void onDirectoryError(Exception e) {
+                Log.e(TAG, "Failed to load users for assignment: " + e.getMessage());
+                Toast.makeText(EditTaskActivity.this, "Could not load users for assignment.", Toast.LENGTH_SHORT).show();
+                if (!completed[0]) {
+                    completed[0] = true;
                     onComplete.run();
-                });
+                }
+            }
+        };
+        UserDirectory.getInstance().addListener(directoryListener);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (directoryListener != null) {
+            UserDirectory.getInstance().removeListener(directoryListener);
+        }
     }
 
     private void showMultiSelectUserDialog() {
@@ -432,67 +473,40 @@ public class EditTaskActivity extends AppCompatActivity {
         btnSaveTask.setText("Updating...");
 
         // --- CORE LOGIC: READ ORIGINAL TASK DATA FOR STATUS CHECK AND RESET ---
-        db.collection("tasks").document(taskId).get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    Task originalTask = documentSnapshot.toObject(Task.class);
+        fetchTask()
+                .addOnSuccessListener(originalTask -> {
                     if (originalTask != null) {
 
-                        // Initialize status variables (mutable inside this lambda block)
-                        String finalStatus = originalTask.getStatus();
-                        long finalCompletedDateMillis = originalTask.getCompletedDateMillis();
-                        String finalAiCountValue = originalTask.getAiCountValue();
-                        Map<String, String> finalUserStatus = new HashMap<>(originalTask.getUserStatus());
-                        Map<String, Long> finalUserCompletedDate = new HashMap<>(originalTask.getUserCompletedDate());
-                        Map<String, String> finalUserAiCount = new HashMap<>(originalTask.getUserAiCount());
-
                         boolean wasCompleted = originalTask.getStatus() != null && originalTask.getStatus().equalsIgnoreCase("Completed");
                         boolean wasAiCountNotRequired = !originalTask.isRequireAiCount();
 
                         // Condition: The task was completed AND AI count was NOT required, BUT it is NOW required.
-                        if (wasCompleted && wasAiCountNotRequired && newRequireAiCount) {
-                            // Admin enabled AI Count Correction on a completed task -> RESET STATUS
-
-                            // Reset global fields
-                            finalStatus = "Pending";
-                            finalCompletedDateMillis = 0L;
-                            finalAiCountValue = "";
+                        boolean resetStatus = wasCompleted && wasAiCountNotRequired && newRequireAiCount;
 
-                            // Reset all user-specific fields
-                            // Iterate over the users *currently* assigned to the task, or rely on the finalAssignedTo list
+                        // Only the per-user entries that must change are written, one field
+                        // path each, so status changes members make meanwhile are kept
+                        List<String> pendingEmails = new ArrayList<>();
+                        if (resetStatus) {
+                            // Admin enabled AI Count Correction on a completed task -> RESET STATUS
                             // We use the original assignedTo to clear only relevant entries.
-                            for (String email : originalTask.getAssignedTo()) {
-                                finalUserStatus.put(email, "Pending");
-                                finalUserCompletedDate.put(email, 0L);
-                                finalUserAiCount.put(email, "");
-                            }
-                            // Add/update newly assigned users if any were added
-                            for (String email : finalAssignedTo) {
-                                if (!finalUserStatus.containsKey(email) || finalUserStatus.get(email) == null) {
-                                    finalUserStatus.put(email, "Pending");
-                                    finalUserCompletedDate.put(email, 0L);
-                                    finalUserAiCount.put(email, "");
-                                }
+                            pendingEmails.addAll(originalTask.getAssignedTo());
+                        }
+                        // Newly assigned users are initialized to Pending.
+                        for (String email : finalAssignedTo) {
+                            if (!pendingEmails.contains(email)
+                                    && originalTask.getUserStatus().get(email) == null) {
+                                pendingEmails.add(email);
                             }
-
+                        }
+                        if (resetStatus) {
                             Toast.makeText(EditTaskActivity.this, "AI Count enabled. Task status reset to Pending for all users.", Toast.LENGTH_LONG).show();
-                        } else {
-                            // If the assignment list changed (which is captured by finalAssignedTo),
-                            // ensure new users are initialized to Pending.
-                            for (String email : finalAssignedTo) {
-                                if (!finalUserStatus.containsKey(email)) {
-                                    finalUserStatus.put(email, "Pending");
-                                    finalUserCompletedDate.put(email, 0L);
-                                    finalUserAiCount.put(email, "");
-                                }
-                            }
                         }
 
                         // Call the update method with the final, effectively-final local variables
                         saveTaskUpdateToFirestore(
                                 finalTitle, finalDescription, finalPriority, finalRemarks, finalAssignedTo, finalStartDate, finalEndDate,
                                 newRequireAiCount, taskType, finalSelectedDays,
-                                finalStatus, finalCompletedDateMillis, finalAiCountValue,
-                                finalUserStatus, finalUserCompletedDate, finalUserAiCount
+                                resetStatus, pendingEmails
                         );
 
                     } else {
@@ -511,7 +525,7 @@ public class EditTaskActivity extends AppCompatActivity {
     }
 
 
-    private void saveTaskUpdateToFirestore(String title, String description, String priority, String remarks, List<String> assignedTo, String startDate, String endDate, boolean requireAiCount, String taskType, List<String> selectedDays, String status, long completedDateMillis, String aiCountValue, Map<String, String> userStatus, Map<String, Long> userCompletedDate, Map<String, String> userAiCount) {
+    private void saveTaskUpdateToFirestore(String title, String description, String priority, String remarks, List<String> assignedTo, String startDate, String endDate, boolean requireAiCount, String taskType, List<String> selectedDays, boolean resetStatus, List<String> pendingEmails) {
         Map<String, Object> taskUpdates = new HashMap<>();
         taskUpdates.put("title", title);
         taskUpdates.put("description", description);
@@ -521,20 +535,32 @@ public class EditTaskActivity extends AppCompatActivity {
         taskUpdates.put("assignedTo", assignedTo);
         taskUpdates.put("startDate", startDate);
         taskUpdates.put("endDate", endDate);
+        // Range-query fields; null clears them when the task becomes Permanent
+        taskUpdates.put("startEpochDay", TaskSchedule.storedEpochDay(startDate));
+        taskUpdates.put("endEpochDay", TaskSchedule.storedEpochDay(endDate));
         taskUpdates.put("requireAiCount", requireAiCount);
         taskUpdates.put("taskType", taskType);
         taskUpdates.put("selectedDays", selectedDays);
 
-        // Status fields (potentially reset by Admin's AI Count flag change)
-        taskUpdates.put("status", status);
-        taskUpdates.put("completedDateMillis", completedDateMillis);
-        taskUpdates.put("aiCountValue", aiCountValue);
-        taskUpdates.put("userStatus", userStatus);
-        taskUpdates.put("userCompletedDate", userCompletedDate);
-        taskUpdates.put("userAiCount", userAiCount);
+        // Status fields, only when reset by Admin's AI Count flag change
+        if (resetStatus) {
+            taskUpdates.put("status", "Pending");
+            taskUpdates.put("completedDateMillis", 0L);
+            taskUpdates.put("aiCountValue", "");
+        }
+
+        DocumentReference taskRef = db.collection("tasks").document(taskId);
+        WriteBatch batch = db.batch();
+        batch.update(taskRef, taskUpdates);
+        for (String email : pendingEmails) {
+            // FieldPath, not "userStatus." + email: the dots in an email would split the path
+            batch.update(taskRef,
+                    FieldPath.of("userStatus", email), "Pending",
+                    FieldPath.of("userCompletedDate", email), 0L,
+                    FieldPath.of("userAiCount", email), "");
+        }
 
-        db.collection("tasks").document(taskId)
-                .update(taskUpdates)
+        batch.commit()
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(this, "Task updated successfully!", Toast.LENGTH_SHORT).show();
                     finish();
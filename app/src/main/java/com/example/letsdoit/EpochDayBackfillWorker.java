@@ -0,0 +1,206 @@
+// src/main/java/com/example/letsdoit/EpochDayBackfillWorker.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-time migration that writes startEpochDay/endEpochDay on Additional tasks created
+ * before those fields existed, so TaskRepository's range queries can find them, and
+ * searchName/searchEmail on users, for the member directory's ordered queries. It first writes an
+ * exact taskType ("Permanent" when missing) on every task, since those queries match
+ * the type by equality. Only documents whose
+ * fields are missing or disagree with their source are updated, so running it again is
+ * harmless. Each finished step is recorded in /migrations/backfill, which tells every
+ * device (not just this one) when the queries that depend on the step can be used.
+ * Scheduled on admin devices.
+ */
+public class EpochDayBackfillWorker extends Worker {
+
+    private static final String TAG = "EpochDayBackfillWorker";
+    private static final String WORK_NAME = "epoch-day-backfill";
+    // Firestore allows at most 500 writes per batch
+    private static final int BATCH_SIZE = 400;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    static final String STEP_TASK_TYPES = "taskTypes";
+    static final String STEP_EPOCH_DAYS = "epochDays";
+    static final String STEP_SEARCH_FIELDS = "searchFields";
+
+    public EpochDayBackfillWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(EpochDayBackfillWorker.class)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * The shared record of finished steps; one boolean field per step.
+     */
+    static DocumentReference stateRef(FirebaseFirestore db) {
+        return db.collection("migrations").document("backfill");
+    }
+
+    static boolean isDone(@Nullable DocumentSnapshot state, String step) {
+        return state != null && Boolean.TRUE.equals(state.getBoolean(step));
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseFirestore db = FirestoreProvider.get();
+        try {
+            DocumentSnapshot state = await(ReadPolicy.SERVER_ONLY.get(stateRef(db)));
+            // Before the epoch days, which are only written on "Additional" tasks
+            if (!isDone(state, STEP_TASK_TYPES)) {
+                Log.d(TAG, "Backfilled task types of " + backfillTaskTypes(db) + " tasks");
+                markDone(db, STEP_TASK_TYPES);
+            }
+            if (!isDone(state, STEP_EPOCH_DAYS)) {
+                Log.d(TAG, "Backfilled epoch days of " + backfillEpochDays(db) + " tasks");
+                markDone(db, STEP_EPOCH_DAYS);
+            }
+            if (!isDone(state, STEP_SEARCH_FIELDS)) {
+                Log.d(TAG, "Backfilled search fields of " + backfillSearchFields(db) + " users");
+                markDone(db, STEP_SEARCH_FIELDS);
+            }
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Epoch day backfill failed", e);
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Fields a backfill step writes on one document, or null when the document is
+     * already up to date.
+     */
+    private interface DocumentUpdate {
+        @Nullable
+        Map<String, Object> fieldsFor(DocumentSnapshot document);
+    }
+
+    /**
+     * Missing types become "Permanent", as Task's no-arg constructor and the screens
+     * already treat them; other casings are normalized.
+     */
+    private static int backfillTaskTypes(FirebaseFirestore db) throws Exception {
+        return updateAll(db, await(db.collection("tasks").get()), document -> {
+            String taskType = document.getString("taskType");
+            String exact;
+            if (taskType == null || "permanent".equalsIgnoreCase(taskType)) {
+                exact = "Permanent";
+            } else if ("additional".equalsIgnoreCase(taskType)) {
+                exact = "Additional";
+            } else {
+                return null;
+            }
+            if (exact.equals(taskType)) {
+                return null;
+            }
+            return Collections.singletonMap("taskType", exact);
+        });
+    }
+
+    private static int backfillEpochDays(FirebaseFirestore db) throws Exception {
+        QuerySnapshot snapshot = await(db.collection("tasks")
+                .whereEqualTo("taskType", "Additional")
+                .get());
+        return updateAll(db, snapshot, document -> {
+            Long startEpochDay = TaskSchedule.storedEpochDay(document.getString("startDate"));
+            Long endEpochDay = TaskSchedule.storedEpochDay(document.getString("endDate"));
+            if (Objects.equals(startEpochDay, document.getLong("startEpochDay"))
+                    && Objects.equals(endEpochDay, document.getLong("endEpochDay"))) {
+                return null;
+            }
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("startEpochDay", startEpochDay);
+            fields.put("endEpochDay", endEpochDay);
+            return fields;
+        });
+    }
+
+    private static int backfillSearchFields(FirebaseFirestore db) throws Exception {
+        return updateAll(db, await(db.collection("users").get()), document -> {
+            String searchName = User.searchNameOf(document.getString("displayName"));
+            String searchEmail = User.searchEmailOf(document.getString("email"));
+            if (searchName.equals(document.getString("searchName"))
+                    && searchEmail.equals(document.getString("searchEmail"))) {
+                return null;
+            }
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("searchName", searchName);
+            fields.put("searchEmail", searchEmail);
+            return fields;
+        });
+    }
+
+    /**
+     * Applies update to every document of the snapshot, committing BATCH_SIZE updates at
+     * a time, and returns the number of updated documents.
+     */
+    private static int updateAll(FirebaseFirestore db, QuerySnapshot snapshot,
+                                 DocumentUpdate update) throws Exception {
+        WriteBatch batch = db.batch();
+        int pending = 0;
+        int updated = 0;
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            Map<String, Object> fields = update.fieldsFor(document);
+            if (fields == null) {
+                continue;
+            }
+            batch.update(document.getReference(), fields);
+            updated++;
+            if (++pending == BATCH_SIZE) {
+                await(batch.commit());
+                batch = db.batch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            await(batch.commit());
+        }
+        return updated;
+    }
+
+    private static void markDone(FirebaseFirestore db, String step) throws Exception {
+        Map<String, Object> done = Collections.singletonMap(step, true);
+        await(stateRef(db).set(done, SetOptions.merge()));
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
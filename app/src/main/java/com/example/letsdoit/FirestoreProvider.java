@@ -0,0 +1,47 @@
+// src/main/java/com/example/letsdoit/FirestoreProvider.java
+package com.example.letsdoit;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+
+/**
+ * The app's FirebaseFirestore, configured before its first use with an explicitly sized
+ * persistent cache. Every class gets the instance here rather than from
+ * FirebaseFirestore.getInstance(); LetsDoItApplication calls get() at process start, so
+ * receivers and workers that run without an activity use the same settings.
+ * One-shot reads choose their source with ReadPolicy.
+ */
+public final class FirestoreProvider {
+
+    private static final String TAG = "FirestoreProvider";
+
+    // Tasks, the retention window of day statuses and the user directory stay far below
+    // this; above it Firestore evicts the least recently used documents
+    static final long CACHE_SIZE_BYTES = 50L * 1024 * 1024;
+
+    private static boolean configured = false;
+
+    private FirestoreProvider() {
+    }
+
+    public static synchronized FirebaseFirestore get() {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        if (!configured) {
+            configured = true;
+            try {
+                db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                        .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                                .setSizeBytes(CACHE_SIZE_BYTES)
+                                .build())
+                        .build());
+            } catch (IllegalStateException e) {
+                // Something used the instance first; it keeps the default cache settings
+                Log.e(TAG, "Firestore was used before it was configured", e);
+            }
+        }
+        return db;
+    }
+}
@@ -6,6 +6,7 @@ import android.app.Dialog;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -23,19 +24,23 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
-public class HomeFragment extends Fragment implements CalendarDialogFragment.OnDateSelectedListener {
+public class HomeFragment extends Fragment
+        implements CalendarDialogFragment.OnDateSelectedListener, TaskRepository.TaskListener {
+
+    private static final String TAG = "HomeFragment";
 
     private static final String ARG_WELCOME_MESSAGE = "welcome_message";
     private static final String ARG_USER_EMAIL = "user_email";
@@ -47,6 +52,7 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
     private TextView tvWelcomeName, tvDateIndicator;
     private TextView tvTotalTasksCount, tvDoneCount, tvNotDoneCount;
     private TextView tvDonePercentage, tvNotDonePercentage;
+    private TextView tvDashboardUpdated, tvTotalAssigned;
 
     private CardView cardTotalTasks, cardDone, cardNotDone, cardPieChart, cardFabCalendar;
     private ProgressBar progressBar;
@@ -55,22 +61,27 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
     private TaskPieChartView taskPieChartView;
 
     private FirebaseFirestore db;
-
-    private List<Task> allTasks = new ArrayList<>();
-    private List<Task> doneTasks = new ArrayList<>();
-    private List<Task> notDoneTasks = new ArrayList<>();
-
-    private final SimpleDateFormat dateFormat =
-            new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-    private final SimpleDateFormat dayFormat =
-            new SimpleDateFormat("EEE", Locale.US);
-    // For daily-status docs
-    private final SimpleDateFormat storageDateKeyFormat =
-            new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+    private DayStatusResolver dayStatusResolver;
+    private LocalSync localSync;
+    private DashboardCache dashboardCache;
+    private TaskRepository taskRepository;
+    private boolean listeningToTasks = false;
+    private int loadGeneration = 0;
+    // Additional tasks of the selected past date that ended before TaskRepository's window
+    private List<Task> endedTasks = Collections.emptyList();
+
+    // What the cards show; its Done/Pending lists are filled in on the first drill-down
+    // when it was built from the /stats counters
+    @Nullable
+    private DashboardSnapshot snapshot;
 
     private long selectedDateMillis = -1;
     private static boolean hasAnimated = false;
 
+    // One worker for every dashboard pass: results come back in order
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
     public static HomeFragment newInstance(String msg, String email,
                                            String role, String name) {
         HomeFragment f = new HomeFragment();
@@ -91,7 +102,11 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
             loggedInUserRole = getArguments().getString(ARG_USER_ROLE);
             displayName = getArguments().getString(ARG_DISPLAY_NAME);
         }
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
+        dayStatusResolver = new DayStatusResolver(db);
+        localSync = LocalSync.getInstance(requireContext());
+        dashboardCache = new DashboardCache(requireContext());
+        taskRepository = TaskRepository.getInstance();
     }
 
     @Nullable
@@ -120,6 +135,8 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
 
         tvDonePercentage = v.findViewById(R.id.tv_done_percentage);
         tvNotDonePercentage = v.findViewById(R.id.tv_not_done_percentage);
+        tvDashboardUpdated = v.findViewById(R.id.tv_dashboard_updated);
+        tvTotalAssigned = v.findViewById(R.id.tv_total_assigned);
         taskPieChartView = v.findViewById(R.id.pie_chart_view);
 
         tvWelcomeName.setText(displayName != null ? displayName : "User");
@@ -133,8 +150,8 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
 
         fabCalendar.setOnClickListener(vv -> showCalendarDialog());
 
-        cardDone.setOnClickListener(vv -> showList("Done Tasks", doneTasks));
-        cardNotDone.setOnClickListener(vv -> showList("Pending Tasks", notDoneTasks));
+        cardDone.setOnClickListener(vv -> showStatusList(true));
+        cardNotDone.setOnClickListener(vv -> showStatusList(false));
 
         // Prevent blinking
         llDashboardContent.setVisibility(View.VISIBLE);
@@ -154,6 +171,26 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
         }
         updateDateLabel();
         loadTasks();
+        loadAssignedCount();
+    }
+
+    /**
+     * Every task the user can see on any date, as count() aggregations; shown under the
+     * day's total.
+     */
+    private void loadAssignedCount() {
+        new CountService(db).countTasksVisibleTo(loggedInUserEmail, loggedInUserRole, count -> {
+            if (!isAdded() || getView() == null) return;
+            tvTotalAssigned.setText("of " + count + " assigned");
+            tvTotalAssigned.setVisibility(View.VISIBLE);
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        taskRepository.removeListener(this);
+        listeningToTasks = false;
     }
 
     public void setSelectedDateMillis(long dateMillis) {
@@ -181,8 +218,8 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
 
     @Override
     public void onDateSelected(long ms, String formatted) {
-        long todayStart = getDayStartMillis(System.currentTimeMillis());
-        selectedDateMillis = (getDayStartMillis(ms) == todayStart) ? -1 : ms;
+        long todayEpochDay = DateKeys.epochDayOf(System.currentTimeMillis());
+        selectedDateMillis = (DateKeys.epochDayOf(ms) == todayEpochDay) ? -1 : ms;
         updateDateLabel();
         loadTasks();
         syncDateWithActivity();
@@ -192,199 +229,297 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
         tvDateIndicator.setText(
                 selectedDateMillis == -1
                         ? "Today"
-                        : dateFormat.format(new Date(selectedDateMillis)));
+                        : DateKeys.formatDisplayDate(selectedDateMillis));
     }
 
     /**
-     * Load tasks for dashboard and compute Done/Pending using per-day TaskDayStatus.
+     * Load tasks for dashboard from TaskRepository; the active tasks come from memory and
+     * the Done count from the /stats/{dateKey} counters (one read). Dates without
+     * counters fall back to resolving every status with DayStatusResolver.
      */
     private void loadTasks() {
-        progressBar.setVisibility(View.VISIBLE);
-        llDashboardContent.setAlpha(0f);
+        // Stale-while-revalidate: paint the dashboard last saved for this date right away;
+        // the spinner is only for dates never computed on this device
+        if (!showSavedDashboard()) {
+            snapshot = null; // the previous date's lists must not open for this one
+            progressBar.setVisibility(View.VISIBLE);
+            llDashboardContent.setAlpha(0f);
+            tvDashboardUpdated.setVisibility(View.GONE);
+        }
 
-        long filterDate =
-                selectedDateMillis == -1 ? System.currentTimeMillis() : selectedDateMillis;
-        long dayStart = getDayStartMillis(filterDate);
-        String dayShort =
-                dayFormat.format(new Date(filterDate)).toLowerCase(Locale.US);
-        String dateKey =
-                new SimpleDateFormat("yyyy-MM-dd", Locale.US)
-                        .format(new Date(dayStart));
-
-        db.collection("tasks").get().addOnSuccessListener(snap -> {
-            allTasks.clear();
-            doneTasks.clear();
-            notDoneTasks.clear();
-
-            List<Task> visibleAndActive = new ArrayList<>();
-
-            for (QueryDocumentSnapshot doc : snap) {
-                try {
-                    Task t = doc.toObject(Task.class);
-                    t.setId(doc.getId());
-
-                    String type =
-                            t.getTaskType() != null
-                                    ? t.getTaskType().toLowerCase(Locale.US)
-                                    : "permanent";
-
-                    // User assignment filter (same rule as before)
-                    if (!"admin".equalsIgnoreCase(loggedInUserRole)) {
-                        if (type.equals("additional")) {
-                            List<String> assigned = t.getAssignedTo();
-                            if (assigned == null || !assigned.contains(loggedInUserEmail))
-                                continue;
+        loadEndedTasks();
+        if (!listeningToTasks) {
+            // Delivers the cached tasks right away when the repository is already loaded
+            listeningToTasks = true;
+            taskRepository.addListener(this);
+        } else if (taskRepository.isLoaded()) {
+            onTasksUpdated(taskRepository.getTasks());
+        }
+    }
+
+    /**
+     * Past dates may need Additional tasks that have already ended; TaskRepository only
+     * listens to current ones, so those come from one range query per date change.
+     */
+    private void loadEndedTasks() {
+        if (selectedDateMillis == -1) {
+            endedTasks = Collections.emptyList();
+            return;
+        }
+        final long requestedDateMillis = selectedDateMillis;
+        taskRepository.fetchEndedTasks(loggedInUserEmail, loggedInUserRole,
+                DateKeys.epochDayOf(selectedDateMillis), new TaskRepository.TaskListener() {
+                    @Override
+                    public void onTasksUpdated(List<Task> ended) {
+                        if (!isAdded() || requestedDateMillis != selectedDateMillis) return;
+                        boolean changed = !ended.isEmpty() || !endedTasks.isEmpty();
+                        endedTasks = ended;
+                        if (changed && taskRepository.isLoaded()) {
+                            HomeFragment.this.onTasksUpdated(taskRepository.getTasks());
                         }
                     }
 
-                    if (!isTaskActive(t, dayShort, dayStart)) continue;
+                    @Override
+                    public void onTasksError(Exception e) {
+                        Log.e(TAG, "Error loading ended tasks", e);
+                    }
+                });
+    }
 
-                    visibleAndActive.add(t);
+    private boolean showSavedDashboard() {
+        DashboardCache.Snapshot saved = dashboardCache.get(loggedInUserEmail, getSelectedDateKey());
+        if (saved == null) {
+            return false;
+        }
+        ++loadGeneration; // a pass still running for the previous date must not overwrite this
+        // Rows for the Done/Pending dialogs, as far as the task cache already has them
+        snapshot = DashboardSnapshot.fromDoneCount(getSelectedDateKey(),
+                tasksById(saved.getTaskIds()), saved.getDone());
+
+        showCounts(saved.getTotal(), saved.getDone(), saved.getPending(),
+                saved.getDoneFraction(), false);
+        progressBar.setVisibility(View.GONE);
+        llDashboardContent.animate().cancel();
+        llDashboardContent.setAlpha(1f);
+        hasAnimated = true; // don't slide in cards that are already showing numbers
+        tvDashboardUpdated.setText("Saved " + DateKeys.formatTime(saved.getComputedAt())
+                + " · updating…");
+        tvDashboardUpdated.setVisibility(View.VISIBLE);
+        return true;
+    }
 
-                } catch (Exception ignored) {
-                }
+    private List<Task> tasksById(List<String> taskIds) {
+        List<Task> found = new ArrayList<>();
+        for (String taskId : taskIds) {
+            Task task = taskRepository.getTask(taskId);
+            if (task != null) {
+                found.add(task);
             }
+        }
+        return found;
+    }
 
-            if (visibleAndActive.isEmpty()) {
-                updateDashboard();
-                progressBar.setVisibility(View.GONE);
-                llDashboardContent.animate()
-                        .alpha(1f)
-                        .setDuration(400)
-                        .setInterpolator(new DecelerateInterpolator())
-                        .start();
-                if (!hasAnimated) animateCards();
-                return;
+    private List<Task> withEndedTasks(List<Task> tasks) {
+        if (endedTasks.isEmpty()) {
+            return tasks;
+        }
+        Set<String> ids = new HashSet<>();
+        List<Task> all = new ArrayList<>(tasks);
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        for (Task task : endedTasks) {
+            if (ids.add(task.getId())) {
+                all.add(task);
             }
+        }
+        return Collections.unmodifiableList(all);
+    }
 
-            FirebaseFirestore firestore = FirebaseFirestore.getInstance();
-            List<com.google.android.gms.tasks.Task<DocumentSnapshot>> statusTasks =
-                    new ArrayList<>();
-
-            for (Task t : visibleAndActive) {
-                com.google.android.gms.tasks.Task<DocumentSnapshot> statusTask =
-                        firestore.collection("tasks")
-                                .document(t.getId())
-                                .collection("dailyStatus")
-                                .document(dateKey)
-                                .get()
-                                .addOnSuccessListener(snapshot -> {
-                                    String statusForDay = getStatusForDashboard(t, snapshot);
-                                    allTasks.add(t);
-                                    if ("Completed".equalsIgnoreCase(statusForDay)) {
-                                        doneTasks.add(t);
-                                    } else {
-                                        notDoneTasks.add(t);
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
-                                    // On failure, treat as Pending but still count it
-                                    allTasks.add(t);
-                                    notDoneTasks.add(t);
-                                });
-
-                statusTasks.add(statusTask);
-            }
+    private String getSelectedDateKey() {
+        long filterDate =
+                selectedDateMillis == -1 ? System.currentTimeMillis() : selectedDateMillis;
+        return DateKeys.dateKeyOf(filterDate);
+    }
 
-            Tasks.whenAllComplete(statusTasks)
-                    .addOnSuccessListener(all -> {
-                        updateDashboard();
-                        progressBar.setVisibility(View.GONE);
-                        llDashboardContent.animate()
-                                .alpha(1f)
-                                .setDuration(400)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .start();
-                        if (!hasAnimated) animateCards();
-                    })
-                    .addOnFailureListener(e -> {
-                        updateDashboard();
-                        progressBar.setVisibility(View.GONE);
-                        llDashboardContent.animate()
-                                .alpha(1f)
-                                .setDuration(400)
-                                .setInterpolator(new DecelerateInterpolator())
-                                .start();
-                        if (!hasAnimated) animateCards();
-                    });
+    @Override
+    public void onTasksUpdated(List<Task> tasks) {
+        if (!isAdded()) return;
+
+        String dateKey = getSelectedDateKey();
+        long epochDay = DateKeys.epochDay(dateKey);
+        String email = loggedInUserEmail;
+        String role = loggedInUserRole;
+        List<Task> all = withEndedTasks(tasks);
+        final int generation = ++loadGeneration;
+        inBackground(generation,
+                () -> DashboardSnapshot.activeTasks(all, email, role, epochDay),
+                active -> readStats(active, dateKey, generation));
+    }
 
-        });
+    /**
+     * Done count from the /stats/{dateKey} counters; dates without counters resolve every
+     * status instead.
+     */
+    private void readStats(List<Task> active, String dateKey, int generation) {
+        boolean isAdmin = "admin".equalsIgnoreCase(loggedInUserRole);
+        // Cached counters paint at once (also on a warm start), the server's replace them
+        ReadPolicy.CACHE_THEN_SERVER.read(db.collection("stats").document(dateKey),
+                new ReadPolicy.OnReadListener<DocumentSnapshot>() {
+                    @Override
+                    public void onRead(DocumentSnapshot stored) {
+                        if (!isAdded() || generation != loadGeneration) return;
+                        DailyStats stats = stored.exists() ? stored.toObject(DailyStats.class) : null;
+                        if (stats == null) {
+                            resolveDashboard(active, dateKey, generation);
+                            return;
+                        }
+                        showDashboard(DashboardSnapshot.fromDoneCount(dateKey, active,
+                                        stats.getDoneFor(loggedInUserEmail, isAdmin)),
+                                !stored.getMetadata().isFromCache());
+                    }
+
+                    @Override
+                    public void onReadConfirmed(DocumentSnapshot stored) {
+                        if (!isAdded() || generation != loadGeneration) return;
+                        // The cached counters on screen are current
+                        showUpdatedAt(System.currentTimeMillis());
+                    }
+
+                    @Override
+                    public void onReadError(Exception e) {
+                        if (!isAdded() || generation != loadGeneration) return;
+                        resolveDashboard(active, dateKey, generation);
+                    }
+                });
     }
 
     /**
-     * Dashboard status logic using per-day TaskDayStatus.
+     * Per-task path for dates without /stats counters (mirrored statuses first, then
+     * the server's).
      */
-    private String getStatusForDashboard(Task t, DocumentSnapshot snapshot) {
-        if (snapshot != null && snapshot.exists()) {
-            TaskDayStatus dayStatus = snapshot.toObject(TaskDayStatus.class);
-            if (dayStatus == null) return "Pending";
-
-            String status = dayStatus.getStatus();
-            String aiCount = dayStatus.getAiCountValue();
-
-            if ("Completed".equalsIgnoreCase(status)) {
-                if (t.isRequireAiCount() && (aiCount == null || aiCount.isEmpty())) {
-                    return "Pending";
-                }
-                return "Completed";
-            }
-            return "Pending";
-        }
-        // No record for that day => Not Done yet
-        return "Pending";
+    private void resolveDashboard(List<Task> active, String dateKey, int generation) {
+        dayStatusResolver.resolveWithLocal(localSync, active, dateKey, (statuses, fromServer) ->
+                inBackground(generation,
+                        () -> DashboardSnapshot.fromStatuses(dateKey, active, statuses),
+                        resolved -> showDashboard(resolved, fromServer)));
     }
 
-    private boolean isTaskActive(Task t, String dayShort, long dayStart) {
-        String type =
-                t.getTaskType() != null
-                        ? t.getTaskType().toLowerCase(Locale.US)
-                        : "permanent";
-
-        if (type.equals("permanent")) {
-            List<String> days = t.getSelectedDays();
-            if (days != null) {
-                for (String d : days) {
-                    if (d != null &&
-                            d.trim().toLowerCase(Locale.US).equals(dayShort)) {
-                        return true;
-                    }
-                }
+    /**
+     * Runs work on the dashboard thread and hands its result to then on the main thread,
+     * unless a newer pass started or the fragment went away meanwhile.
+     */
+    private <T> void inBackground(int generation, Callable<T> work, Consumer<T> then) {
+        executor.execute(() -> {
+            T result;
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                Log.e(TAG, "Dashboard pass failed", e);
+                return;
             }
-            return false;
+            mainHandler.post(() -> {
+                if (!isAdded() || generation != loadGeneration) return;
+                then.accept(result);
+            });
+        });
+    }
+
+    private void showDashboard(DashboardSnapshot dashboard, boolean fresh) {
+        snapshot = dashboard;
+        long computedAt = System.currentTimeMillis();
+        dashboardCache.put(loggedInUserEmail, dashboard.getDateKey(),
+                new DashboardCache.Snapshot(dashboard.getTaskIds(), dashboard.getDone(), computedAt));
+
+        showCounts(dashboard.getTotal(), dashboard.getDone(), dashboard.getPending(),
+                dashboard.getDoneFraction(), true);
+        if (fresh) {
+            showUpdatedAt(computedAt);
         }
+        progressBar.setVisibility(View.GONE);
+        llDashboardContent.animate()
+                .alpha(1f)
+                .setDuration(400)
+                .setInterpolator(new DecelerateInterpolator())
+                .start();
+        if (!hasAnimated) animateCards();
+    }
 
-        try {
-            String s = t.getStartDate();
-            String e = t.getEndDate();
-            boolean hasS = s != null && !s.isEmpty();
-            boolean hasE = e != null && !e.isEmpty();
-            long start = hasS ? getDayStartMillis(dateFormat.parse(s).getTime()) : dayStart;
-            long end = hasE ? getDayStartMillis(dateFormat.parse(e).getTime()) : dayStart;
-            return dayStart >= start && dayStart <= end;
-        } catch (Exception ex) {
-            return false;
+    private void showUpdatedAt(long millis) {
+        tvDashboardUpdated.setText("Updated " + DateKeys.formatTime(millis));
+        tvDashboardUpdated.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * The dialogs render the snapshot's lists. A snapshot built from the counters has
+     * none, so the day's statuses are resolved once on the first tap and the snapshot
+     * (cards included) is replaced by the complete one.
+     */
+    private void showStatusList(boolean done) {
+        DashboardSnapshot current = snapshot;
+        if (current == null) return;
+        String title = done ? "Done Tasks" : "Pending Tasks";
+        if (current.hasLists()) {
+            showList(title, done ? current.getDoneTasks() : current.getPendingTasks());
+            return;
         }
+        final int generation = loadGeneration;
+        // Local writes not synced yet win, as in loadDashboard; only the reconciled answer
+        // is used, so the list opens once
+        dayStatusResolver.resolveWithLocal(localSync, current.getTasks(), current.getDateKey(),
+                (statuses, fromServer) -> {
+                    if (!fromServer) return;
+                    inBackground(generation,
+                            () -> DashboardSnapshot.fromStatuses(current.getDateKey(),
+                                    current.getTasks(), statuses),
+                            resolved -> {
+                                showDashboard(resolved, false);
+                                showList(title, done ? resolved.getDoneTasks() : resolved.getPendingTasks());
+                            });
+                });
     }
 
-    private void updateDashboard() {
-        int total = allTasks.size();
-        int done = doneTasks.size();
-        int pending = notDoneTasks.size();
+    @Override
+    public void onTasksError(Exception e) {
+        if (!isAdded()) return;
+        progressBar.setVisibility(View.GONE);
+        llDashboardContent.animate().alpha(1f).setDuration(400).start();
+        if (tvDashboardUpdated.getVisibility() == View.VISIBLE) {
+            tvDashboardUpdated.setText("Offline · showing saved dashboard");
+        }
+    }
 
-        animate(tvTotalTasksCount, total);
-        animate(tvDoneCount, done);
-        animate(tvNotDoneCount, pending);
+    private void showCounts(int total, int done, int pending, float frac, boolean animated) {
+        if (animated) {
+            animate(tvTotalTasksCount, total);
+            animate(tvDoneCount, done);
+            animate(tvNotDoneCount, pending);
+        } else {
+            tvTotalTasksCount.setText(String.valueOf(total));
+            tvDoneCount.setText(String.valueOf(done));
+            tvNotDoneCount.setText(String.valueOf(pending));
+        }
 
         tvDonePercentage.setText("DONE " + done);
         tvNotDonePercentage.setText("PENDING " + pending);
 
-        float frac = total == 0 ? 0 : (float) done / total;
         taskPieChartView.setTaskPercentages(frac);
     }
 
     private void animate(TextView tv, int target) {
+        // Count from what is shown (e.g. the saved dashboard), not from zero
+        int from;
+        try {
+            from = Integer.parseInt(tv.getText().toString());
+        } catch (NumberFormatException e) {
+            from = 0;
+        }
+        if (from == target) {
+            tv.setText(String.valueOf(target));
+            return;
+        }
         android.animation.ValueAnimator a =
-                android.animation.ValueAnimator.ofInt(0, target);
+                android.animation.ValueAnimator.ofInt(from, target);
         a.setDuration(800);
         a.setInterpolator(new DecelerateInterpolator());
         a.addUpdateListener(v -> tv.setText(String.valueOf(v.getAnimatedValue())));
@@ -461,16 +596,6 @@ public class HomeFragment extends Fragment implements CalendarDialogFragment.OnD
         d.show();
     }
 
-    private long getDayStartMillis(long ms) {
-        Calendar c = Calendar.getInstance();
-        c.setTimeInMillis(ms);
-        c.set(Calendar.HOUR_OF_DAY, 0);
-        c.set(Calendar.MINUTE, 0);
-        c.set(Calendar.SECOND, 0);
-        c.set(Calendar.MILLISECOND, 0);
-        return c.getTimeInMillis();
-    }
-
     private static class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.Holder> {
         List<Task> list;
 
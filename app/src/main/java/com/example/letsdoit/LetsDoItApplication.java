@@ -0,0 +1,16 @@
+// src/main/java/com/example/letsdoit/LetsDoItApplication.java
+package com.example.letsdoit;
+
+import android.app.Application;
+
+/**
+ * Configures Firestore before any activity, receiver or worker touches it.
+ */
+public class LetsDoItApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        FirestoreProvider.get();
+    }
+}
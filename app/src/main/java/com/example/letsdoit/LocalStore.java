@@ -0,0 +1,517 @@
+// src/main/java/com/example/letsdoit/LocalStore.java
+package com.example.letsdoit;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-device mirror of the Firestore data the screens render: tasks, per-day statuses and
+ * user display names. Tables are keyed the way the screens look data up:
+ * - tasks by id, with a task_assignees table indexed by email,
+ * - day_status by (task_id, date_key), indexed by date_key,
+ * - users by email.
+ * A day_status row with pending = 1 is a local write Firestore has not acknowledged yet;
+ * server refreshes never overwrite it.
+ * The outbox table is not a cache: it holds the writes WriteQueue still has to send, in
+ * insertion order, at most one per (kind, task_id, date_key, email).
+ * All methods block on disk I/O; call them through LocalSync, off the main thread.
+ */
+public class LocalStore extends SQLiteOpenHelper {
+
+    private static final String TAG = "LocalStore";
+
+    private static final String DATABASE_NAME = "letsdoit_local.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static LocalStore instance;
+
+    public static synchronized LocalStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LocalStore(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE tasks ("
+                + "id TEXT PRIMARY KEY, "
+                + "task_type TEXT, "
+                + "timestamp INTEGER NOT NULL DEFAULT 0, "
+                + "json TEXT NOT NULL)");
+        db.execSQL("CREATE TABLE task_assignees ("
+                + "task_id TEXT NOT NULL, "
+                + "email TEXT NOT NULL, "
+                + "PRIMARY KEY (task_id, email))");
+        db.execSQL("CREATE INDEX idx_task_assignees_email ON task_assignees (email)");
+        db.execSQL("CREATE TABLE day_status ("
+                + "task_id TEXT NOT NULL, "
+                + "date_key TEXT NOT NULL, "
+                + "status TEXT, "
+                + "ai_count_value TEXT, "
+                + "completed_at INTEGER NOT NULL DEFAULT 0, "
+                + "pending INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (task_id, date_key))");
+        db.execSQL("CREATE INDEX idx_day_status_date_key ON day_status (date_key)");
+        db.execSQL("CREATE TABLE users ("
+                + "email TEXT PRIMARY KEY, "
+                + "display_name TEXT, "
+                + "role TEXT)");
+        createOutbox(db);
+    }
+
+    private static void createOutbox(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS outbox ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "kind TEXT NOT NULL, "
+                + "task_id TEXT NOT NULL, "
+                + "date_key TEXT NOT NULL DEFAULT '', "
+                + "email TEXT NOT NULL DEFAULT '', "
+                + "payload TEXT NOT NULL, "
+                + "attempts INTEGER NOT NULL DEFAULT 0, "
+                + "UNIQUE (kind, task_id, date_key, email))");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Everything but the outbox is a cache of Firestore; rebuilding it is always safe.
+        // The outbox holds unsent writes and is kept (CREATE IF NOT EXISTS).
+        db.execSQL("DROP TABLE IF EXISTS tasks");
+        db.execSQL("DROP TABLE IF EXISTS task_assignees");
+        db.execSQL("DROP TABLE IF EXISTS day_status");
+        db.execSQL("DROP TABLE IF EXISTS users");
+        onCreate(db);
+    }
+
+    // --- Tasks ---
+
+    /**
+     * Ordered by document id, like an unordered Firestore query.
+     */
+    public List<Task> getTasks() {
+        return queryTasks("SELECT json FROM tasks ORDER BY id", null);
+    }
+
+    /**
+     * Tasks a regular user can see: every Permanent task plus the tasks assigned to them.
+     */
+    public List<Task> getTasksVisibleTo(String email) {
+        return queryTasks("SELECT json FROM tasks "
+                        + "WHERE task_type IS NULL OR task_type = 'Permanent' COLLATE NOCASE "
+                        + "OR id IN (SELECT task_id FROM task_assignees WHERE email = ?) "
+                        + "ORDER BY id",
+                new String[]{email});
+    }
+
+    /**
+     * Replaces the whole task table with a full server snapshot.
+     */
+    public void replaceTasks(List<Task> tasks) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete("tasks", null, null);
+            db.delete("task_assignees", null, null);
+            for (Task task : tasks) {
+                insertTask(db, task);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void upsertTasks(List<Task> tasks) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Task task : tasks) {
+                db.delete("task_assignees", "task_id = ?", new String[]{task.getId()});
+                insertTask(db, task);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void deleteTasks(List<String> taskIds) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String taskId : taskIds) {
+                String[] args = {taskId};
+                db.delete("tasks", "id = ?", args);
+                db.delete("task_assignees", "task_id = ?", args);
+                db.delete("day_status", "task_id = ?", args);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void insertTask(SQLiteDatabase db, Task task) {
+        if (task.getId() == null) {
+            return;
+        }
+        ContentValues values = new ContentValues();
+        values.put("id", task.getId());
+        values.put("task_type", task.getTaskType());
+        values.put("timestamp", task.getTimestamp());
+        values.put("json", toJson(task).toString());
+        db.insertWithOnConflict("tasks", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+        List<String> assignedTo = task.getAssignedTo();
+        if (assignedTo == null) {
+            return;
+        }
+        for (String email : assignedTo) {
+            if (email == null) {
+                continue;
+            }
+            ContentValues assignee = new ContentValues();
+            assignee.put("task_id", task.getId());
+            assignee.put("email", email);
+            db.insertWithOnConflict("task_assignees", null, assignee, SQLiteDatabase.CONFLICT_IGNORE);
+        }
+    }
+
+    private List<Task> queryTasks(String sql, @Nullable String[] args) {
+        List<Task> tasks = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(sql, args)) {
+            while (cursor.moveToNext()) {
+                Task task = fromJson(cursor.getString(0));
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    // --- Day statuses ---
+
+    public Map<String, TaskDayStatus> getDayStatuses(String dateKey) {
+        Map<String, TaskDayStatus> statusByTaskId = new HashMap<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT task_id, status, ai_count_value, completed_at FROM day_status "
+                        + "WHERE date_key = ?",
+                new String[]{dateKey})) {
+            while (cursor.moveToNext()) {
+                statusByTaskId.put(cursor.getString(0), new TaskDayStatus(dateKey,
+                        cursor.getString(1), cursor.getString(2), cursor.getLong(3)));
+            }
+        }
+        return statusByTaskId;
+    }
+
+    /**
+     * Stores a status written on this device. pending = true until Firestore acknowledges it.
+     */
+    public void putDayStatus(String taskId, TaskDayStatus dayStatus, boolean pending) {
+        getWritableDatabase().insertWithOnConflict("day_status", null,
+                dayStatusValues(taskId, dayStatus, pending), SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Stores the statuses the server returned for one date. Day statuses are only ever
+     * overwritten, never deleted, so a partial answer (e.g. reads that failed offline)
+     * can't erase rows. A local pending write is kept until the server reports the same
+     * value, which also settles writes whose acknowledgement was lost to a process kill.
+     */
+    public void putDayStatuses(String dateKey, Map<String, TaskDayStatus> statusByTaskId) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Map.Entry<String, TaskDayStatus> entry : statusByTaskId.entrySet()) {
+                TaskDayStatus server = entry.getValue();
+                if (server == null || isPendingDifferent(db, entry.getKey(), dateKey, server)) {
+                    continue;
+                }
+                TaskDayStatus dayStatus = new TaskDayStatus(dateKey, server.getStatus(),
+                        server.getAiCountValue(), server.getCompletedAt());
+                db.insertWithOnConflict("day_status", null,
+                        dayStatusValues(entry.getKey(), dayStatus, false),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void markDayStatusSynced(String taskId, String dateKey) {
+        ContentValues values = new ContentValues();
+        values.put("pending", 0);
+        getWritableDatabase().update("day_status", values,
+                "task_id = ? AND date_key = ?", new String[]{taskId, dateKey});
+    }
+
+    /**
+     * Undoes a local write Firestore rejected. The row goes back to previous, the value
+     * shown before the write, as synced; without one it only stops being pending, so the
+     * next server refresh overwrites it instead of the row being lost.
+     */
+    public void discardDayStatus(String taskId, String dateKey,
+                                 @Nullable TaskDayStatus previous) {
+        if (previous != null && dateKey.equals(previous.getDateKey())) {
+            putDayStatus(taskId, previous, false);
+        } else {
+            markDayStatusSynced(taskId, dateKey);
+        }
+    }
+
+    private static boolean isPendingDifferent(SQLiteDatabase db, String taskId, String dateKey,
+                                              TaskDayStatus server) {
+        try (Cursor cursor = db.rawQuery("SELECT status, ai_count_value FROM day_status "
+                + "WHERE task_id = ? AND date_key = ? AND pending = 1",
+                new String[]{taskId, dateKey})) {
+            if (!cursor.moveToFirst()) {
+                return false;
+            }
+            return !server.getStatus().equals(cursor.getString(0))
+                    || !server.getAiCountValue().equals(cursor.getString(1));
+        }
+    }
+
+    private static ContentValues dayStatusValues(String taskId, TaskDayStatus dayStatus,
+                                                 boolean pending) {
+        ContentValues values = new ContentValues();
+        values.put("task_id", taskId);
+        values.put("date_key", dayStatus.getDateKey());
+        values.put("status", dayStatus.getStatus());
+        values.put("ai_count_value", dayStatus.getAiCountValue());
+        values.put("completed_at", dayStatus.getCompletedAt());
+        values.put("pending", pending ? 1 : 0);
+        return values;
+    }
+
+    // --- Users ---
+
+    /**
+     * Every cached user and admin, with email, display name and role only.
+     */
+    public List<User> getUsers() {
+        List<User> users = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT email, display_name, role FROM users ORDER BY rowid", null)) {
+            while (cursor.moveToNext()) {
+                User user = new User();
+                user.setEmail(cursor.getString(0));
+                user.setDisplayName(cursor.getString(1));
+                user.setRole(cursor.getString(2));
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    public void replaceUsers(List<User> users) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete("users", null, null);
+            for (User user : users) {
+                if (user.getEmail() == null) {
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put("email", user.getEmail());
+                values.put("display_name", user.getDisplayName());
+                values.put("role", user.getRole());
+                db.insertWithOnConflict("users", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // --- Outbox ---
+
+    /**
+     * Queues a write. A queued write with the same key is replaced and the new one moves
+     * to the end of the queue with a fresh attempt count, so only the latest value is sent.
+     */
+    public void putQueuedWrite(WriteQueue.Entry entry) {
+        ContentValues values = new ContentValues();
+        values.put("kind", entry.getKind());
+        values.put("task_id", entry.getTaskId());
+        values.put("date_key", entry.getDateKey());
+        values.put("email", entry.getEmail());
+        values.put("payload", entry.getPayload());
+        getWritableDatabase().insertWithOnConflict("outbox", null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * The oldest queued writes, in the order they were queued.
+     */
+    public List<WriteQueue.Entry> getQueuedWrites(int limit) {
+        List<WriteQueue.Entry> entries = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT id, kind, task_id, date_key, email, payload, attempts FROM outbox "
+                        + "ORDER BY id LIMIT ?",
+                new String[]{String.valueOf(limit)})) {
+            while (cursor.moveToNext()) {
+                entries.add(new WriteQueue.Entry(cursor.getLong(0), cursor.getString(1),
+                        cursor.getString(2), cursor.getString(3), cursor.getString(4),
+                        cursor.getString(5), cursor.getInt(6)));
+            }
+        }
+        return entries;
+    }
+
+    public void recordWriteAttempt(long id) {
+        getWritableDatabase().execSQL("UPDATE outbox SET attempts = attempts + 1 WHERE id = ?",
+                new Object[]{id});
+    }
+
+    /**
+     * Removes a sent or dropped write. A no-op if it was replaced by a newer one meanwhile.
+     */
+    public void deleteQueuedWrite(long id) {
+        getWritableDatabase().delete("outbox", "id = ?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * Empties every cache table, e.g. on logout. Queued writes are kept: they carry the
+     * email they were made with and are still sent.
+     */
+    public void clearAll() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete("tasks", null, null);
+            db.delete("task_assignees", null, null);
+            db.delete("day_status", null, null);
+            db.delete("users", null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // --- Task <-> JSON ---
+
+    private static JSONObject toJson(Task task) {
+        JSONObject json = new JSONObject();
+        try {
+            json.put("id", task.getId());
+            json.put("title", task.getTitle());
+            json.put("description", task.getDescription());
+            json.put("priority", task.getPriority());
+            json.put("status", task.getStatus());
+            json.put("remarks", task.getRemarks());
+            json.put("startDate", task.getStartDate());
+            json.put("endDate", task.getEndDate());
+            json.put("startEpochDay", task.getStartEpochDay());
+            json.put("endEpochDay", task.getEndEpochDay());
+            json.put("taskType", task.getTaskType());
+            json.put("requireAiCount", task.isRequireAiCount());
+            json.put("aiCountValue", task.getAiCountValue());
+            json.put("completedDateMillis", task.getCompletedDateMillis());
+            json.put("timestamp", task.getTimestamp());
+            if (task.getAssignedTo() != null) {
+                json.put("assignedTo", new JSONArray(task.getAssignedTo()));
+            }
+            json.put("selectedDays", new JSONArray(task.getSelectedDays()));
+            json.put("userStatus", new JSONObject(task.getUserStatus()));
+            json.put("userAiCount", new JSONObject(task.getUserAiCount()));
+            json.put("userCompletedDate", new JSONObject(task.getUserCompletedDate()));
+        } catch (JSONException e) {
+            Log.e(TAG, "Error encoding task " + task.getId(), e);
+        }
+        return json;
+    }
+
+    @Nullable
+    private static Task fromJson(String text) {
+        try {
+            JSONObject json = new JSONObject(text);
+            Task task = new Task();
+            task.setId(json.optString("id", null));
+            task.setTitle(json.optString("title", null));
+            task.setDescription(json.optString("description", null));
+            task.setPriority(json.optString("priority", null));
+            task.setStatus(json.optString("status", null));
+            task.setRemarks(json.optString("remarks", null));
+            task.setStartDate(json.optString("startDate", null));
+            task.setEndDate(json.optString("endDate", null));
+            task.setStartEpochDay(json.has("startEpochDay") ? json.getLong("startEpochDay") : null);
+            task.setEndEpochDay(json.has("endEpochDay") ? json.getLong("endEpochDay") : null);
+            task.setTaskType(json.optString("taskType", "Permanent"));
+            task.setRequireAiCount(json.optBoolean("requireAiCount", false));
+            task.setAiCountValue(json.optString("aiCountValue", ""));
+            task.setCompletedDateMillis(json.optLong("completedDateMillis", 0));
+            task.setTimestamp(json.optLong("timestamp", 0));
+            JSONArray assignedTo = json.optJSONArray("assignedTo");
+            if (assignedTo != null) {
+                task.setAssignedTo(toStringList(assignedTo));
+            }
+            task.setSelectedDays(toStringList(json.optJSONArray("selectedDays")));
+            task.setUserStatus(toStringMap(json.optJSONObject("userStatus")));
+            task.setUserAiCount(toStringMap(json.optJSONObject("userAiCount")));
+
+            Map<String, Long> completed = new HashMap<>();
+            JSONObject completedJson = json.optJSONObject("userCompletedDate");
+            if (completedJson != null) {
+                Iterator<String> keys = completedJson.keys();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    completed.put(key, completedJson.optLong(key, 0));
+                }
+            }
+            task.setUserCompletedDate(completed);
+            return task;
+        } catch (JSONException e) {
+            Log.e(TAG, "Error decoding cached task", e);
+            return null;
+        }
+    }
+
+    private static List<String> toStringList(@Nullable JSONArray array) {
+        List<String> list = new ArrayList<>();
+        if (array == null) {
+            return list;
+        }
+        for (int i = 0; i < array.length(); i++) {
+            list.add(array.optString(i));
+        }
+        return list;
+    }
+
+    private static Map<String, String> toStringMap(@Nullable JSONObject object) {
+        Map<String, String> map = new HashMap<>();
+        if (object == null) {
+            return map;
+        }
+        Iterator<String> keys = object.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            map.put(key, object.optString(key));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,176 @@
+// src/main/java/com/example/letsdoit/LocalSync.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentChange;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background side of the offline-first store. Screens read LocalStore through here and
+ * render immediately; the Firestore listeners and reads then write what the server said
+ * back into it, so the next cold start (or an offline one) begins from the latest data.
+ * Every disk access runs on one worker thread, in submission order; callbacks are posted
+ * to the main thread.
+ */
+public class LocalSync {
+
+    private static final String TAG = "LocalSync";
+
+    public interface Callback<T> {
+        void onLoaded(T result);
+    }
+
+    private static LocalSync instance;
+
+    // One worker keeps writes ordered: a pending status is never overtaken by its own ack
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LocalStore store;
+
+    public static synchronized LocalSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalSync(LocalStore.getInstance(context));
+        }
+        return instance;
+    }
+
+    private LocalSync(LocalStore store) {
+        this.store = store;
+    }
+
+    // --- Reads, delivered on the main thread ---
+
+    public void loadTasks(Callback<List<Task>> callback) {
+        read(store::getTasks, new ArrayList<>(), callback);
+    }
+
+    public void loadTasksVisibleTo(String email, Callback<List<Task>> callback) {
+        read(() -> store.getTasksVisibleTo(email), new ArrayList<>(), callback);
+    }
+
+    public void loadDayStatuses(String dateKey, Callback<Map<String, TaskDayStatus>> callback) {
+        read(() -> store.getDayStatuses(dateKey), new HashMap<>(), callback);
+    }
+
+    public void loadUsers(Callback<List<User>> callback) {
+        read(store::getUsers, new ArrayList<>(), callback);
+    }
+
+    // --- Writes from the server side ---
+
+    public void saveTasks(List<Task> tasks) {
+        List<Task> copy = new ArrayList<>(tasks);
+        write(() -> store.replaceTasks(copy));
+    }
+
+    public void saveTaskChanges(List<TaskRepository.TaskChange> changes) {
+        List<Task> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        for (TaskRepository.TaskChange change : changes) {
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removals.add(change.getTask().getId());
+            } else {
+                upserts.add(change.getTask());
+            }
+        }
+        write(() -> {
+            store.upsertTasks(upserts);
+            store.deleteTasks(removals);
+        });
+    }
+
+    /**
+     * Writes a server answer for one date into the mirror and delivers the reconciled
+     * day: server statuses, except where a local write is still pending.
+     */
+    public void mergeDayStatuses(String dateKey, Map<String, TaskDayStatus> statusByTaskId,
+                                 Callback<Map<String, TaskDayStatus>> callback) {
+        Map<String, TaskDayStatus> copy = new HashMap<>(statusByTaskId);
+        read(() -> {
+            store.putDayStatuses(dateKey, copy);
+            return store.getDayStatuses(dateKey);
+        }, copy, callback);
+    }
+
+    public void saveUsers(List<User> users) {
+        List<User> copy = new ArrayList<>(users);
+        write(() -> store.replaceUsers(copy));
+    }
+
+    // --- Local status writes ---
+
+    /**
+     * Records a status change before it reaches Firestore, so it survives a restart and
+     * is shown even while the device is offline.
+     */
+    public void queueDayStatus(String taskId, TaskDayStatus dayStatus) {
+        write(() -> store.putDayStatus(taskId, dayStatus, true));
+    }
+
+    public void markDayStatusSynced(String taskId, String dateKey) {
+        write(() -> store.markDayStatusSynced(taskId, dateKey));
+    }
+
+    /**
+     * Rolls back a local status change Firestore rejected to previous, the status shown
+     * before it (null if unknown).
+     */
+    public void discardDayStatus(String taskId, String dateKey,
+                                 @Nullable TaskDayStatus previous) {
+        write(() -> store.discardDayStatus(taskId, dateKey, previous));
+    }
+
+    /**
+     * Adds a write to WriteQueue's outbox, then runs onQueued on the worker thread.
+     */
+    public void queueWrite(WriteQueue.Entry entry, Runnable onQueued) {
+        write(() -> {
+            store.putQueuedWrite(entry);
+            onQueued.run();
+        });
+    }
+
+    public void clear() {
+        write(store::clearAll);
+    }
+
+    private interface Query<T> {
+        T run();
+    }
+
+    private <T> void read(Query<T> query, T fallback, Callback<T> callback) {
+        executor.execute(() -> {
+            T result;
+            try {
+                result = query.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Local read failed", e);
+                result = fallback;
+            }
+            T delivered = result;
+            mainHandler.post(() -> callback.onLoaded(delivered));
+        });
+    }
+
+    private void write(Runnable operation) {
+        executor.execute(() -> {
+            try {
+                operation.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Local write failed", e);
+            }
+        });
+    }
+}
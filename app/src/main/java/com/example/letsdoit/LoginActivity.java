@@ -75,7 +75,7 @@ public class LoginActivity extends AppCompatActivity {
 
         setContentView(R.layout.activity_login);
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
 
         etFullname = findViewById(R.id.et_fullname);
         etEmail = findViewById(R.id.et_email);
@@ -48,10 +48,15 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
         notificationHelper = new NotificationHelper(this);
+        // Cold starts render from the on-device mirror until Firestore answers
+        TaskRepository.getInstance().attachLocalStore(this);
+        UserDirectory.getInstance().attachLocalStore(this);
 
         displayName = getIntent().getStringExtra(LoginActivity.EXTRA_DISPLAY_NAME);
         loggedInUserEmail = getIntent().getStringExtra(LoginActivity.EXTRA_USER_EMAIL);
         loggedInUserRole = getIntent().getStringExtra(LoginActivity.EXTRA_USER_ROLE);
+        // Members only download Permanent tasks and the Additional tasks assigned to them
+        TaskRepository.getInstance().setScope(loggedInUserEmail, loggedInUserRole);
 
         if ("admin".equals(loggedInUserRole)) {
             welcomeMessage = "Welcome Admin";
@@ -67,6 +72,18 @@ public class MainActivity extends AppCompatActivity {
             bottomNav.getMenu().removeItem(R.id.navigation_add_activity);
         }
 
+        // Sends writes that failed while offline; see WriteQueue
+        WriteQueueWorker.schedule(this);
+
+        if ("admin".equals(loggedInUserRole)) {
+            // Keeps the /stats dashboard counters honest; see StatsReconciler
+            StatsReconcileWorker.schedule(this);
+            // Older tasks and users need the fields the range and prefix queries use
+            EpochDayBackfillWorker.schedule(this);
+            // Moves ended tasks and old history to /archive; see TaskArchiver
+            TaskArchiveWorker.schedule(this);
+        }
+
         bottomNav.setOnItemSelectedListener(item -> {
             Fragment selectedFragment = null;
             int itemId = item.getItemId();
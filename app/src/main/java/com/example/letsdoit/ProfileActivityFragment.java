@@ -35,7 +35,7 @@ import java.util.regex.Pattern;
 public class ProfileActivityFragment extends Fragment {
 
     private TextView tvDisplayName, tvUserEmail;
-    private Button btnLogout, btnAddMember, btnViewMembers;
+    private Button btnLogout, btnAddMember, btnViewMembers, btnArchivedTasks;
     private ImageButton btnAdminEdit; // NEW: Button for admin self-edit
 
     private String loggedInUserEmail;
@@ -68,7 +68,7 @@ public class ProfileActivityFragment extends Fragment {
             displayName = getArguments().getString(LoginActivity.EXTRA_DISPLAY_NAME);
         }
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
     }
 
     @Nullable
@@ -84,6 +84,7 @@ public class ProfileActivityFragment extends Fragment {
         btnLogout = view.findViewById(R.id.btn_logout);
         btnAddMember = view.findViewById(R.id.btn_add_member);
         btnViewMembers = view.findViewById(R.id.btn_view_members);
+        btnArchivedTasks = view.findViewById(R.id.btn_archived_tasks);
         btnAdminEdit = view.findViewById(R.id.btn_admin_edit); // Initialize new button
 
         // Set display name (Admin gets "Mohsin Mir" by default)
@@ -100,11 +101,20 @@ public class ProfileActivityFragment extends Fragment {
         if ("admin".equalsIgnoreCase(loggedInUserRole)) {
             btnViewMembers.setVisibility(View.VISIBLE);
             btnAddMember.setVisibility(View.VISIBLE);
+            btnArchivedTasks.setVisibility(View.VISIBLE);
             btnAdminEdit.setVisibility(View.VISIBLE); // Show Admin self-edit button
 
             btnViewMembers.setOnClickListener(v -> startActivity(new Intent(getActivity(), ViewMembersActivity.class)));
             btnAddMember.setOnClickListener(v -> startActivity(new Intent(getActivity(), AddMemberActivity.class)));
             btnAdminEdit.setOnClickListener(v -> fetchAdminDetailsAndShowDialog()); // NEW listener
+            btnArchivedTasks.setOnClickListener(v -> showArchivedTasks());
+
+            // Member total via count(): one aggregation instead of the whole collection
+            new CountService(db).countMembers(count -> {
+                if (isAdded()) {
+                    btnViewMembers.setText("View Members (" + count + ")");
+                }
+            });
         } else {
             btnAdminEdit.setVisibility(View.GONE); // Hide for regular users
         }
@@ -119,6 +129,11 @@ public class ProfileActivityFragment extends Fragment {
         SharedPreferences prefs = requireActivity().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         prefs.edit().putBoolean(KEY_IS_LOGGED_IN, false).apply();
 
+        // Stop the task listener and drop cached tasks of the previous account
+        TaskRepository.getInstance().clear();
+        UserDirectory.getInstance().clear();
+        new DashboardCache(requireContext()).clear();
+
         Toast.makeText(getContext(), "Logged out successfully", Toast.LENGTH_SHORT).show();
 
         Intent intent = new Intent(getActivity(), LoginActivity.class);
@@ -127,6 +142,91 @@ public class ProfileActivityFragment extends Fragment {
         requireActivity().finish();
     }
 
+    /**
+     * Lists the tasks TaskArchiveWorker moved to /archive; tapping one restores it.
+     */
+    private void showArchivedTasks() {
+        TaskArchiver archiver = new TaskArchiver(db);
+        com.google.android.gms.tasks.Task<Integer> retentionRead = TaskArchiveWorker.readRetentionDays(db);
+        archiver.listArchived()
+                .addOnSuccessListener(archived -> retentionRead.addOnCompleteListener(retention -> {
+                    if (!isAdded()) return;
+                    String[] items = new String[archived.size()];
+                    for (int i = 0; i < archived.size(); i++) {
+                        Task task = archived.get(i);
+                        items[i] = task.getTitle() + " (ended " + task.getEndDate() + ")";
+                    }
+
+                    AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
+                    builder.setTitle("Archived Tasks");
+                    if (archived.isEmpty()) {
+                        builder.setMessage("No archived tasks. Tasks are archived "
+                                + retention.getResult() + " days after they end.");
+                    } else {
+                        builder.setItems(items, (d, which) ->
+                                confirmRestore(archiver, archived.get(which)));
+                    }
+                    builder.setNeutralButton("Archive Window",
+                            (d, which) -> showRetentionDialog(retention.getResult()));
+                    builder.setNegativeButton("Close", (d, which) -> d.dismiss());
+                    builder.show();
+                }))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load archived tasks: " + e.getMessage());
+                    Toast.makeText(getContext(), "Failed to load archived tasks.", Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void confirmRestore(TaskArchiver archiver, Task task) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Restore Task")
+                .setMessage("Move \"" + task.getTitle() + "\" and its history back to the task list?")
+                .setPositiveButton("Restore", (d, which) -> archiver.restore(task.getId())
+                        .addOnSuccessListener(aVoid ->
+                                Toast.makeText(getContext(), "Task restored", Toast.LENGTH_SHORT).show())
+                        .addOnFailureListener(e -> {
+                            Log.e(TAG, "Failed to restore task: " + e.getMessage());
+                            Toast.makeText(getContext(), "Failed to restore task.", Toast.LENGTH_SHORT).show();
+                        }))
+                .setNegativeButton("Cancel", (d, which) -> d.cancel())
+                .show();
+    }
+
+    /**
+     * The window is shared by every admin (see TaskArchiveWorker).
+     */
+    private void showRetentionDialog(int currentDays) {
+        final EditText etDays = new EditText(requireContext());
+        etDays.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
+        etDays.setText(String.valueOf(currentDays));
+        etDays.setPadding(50, 20, 50, 20);
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Archive Window")
+                .setMessage("Archive ended tasks and history older than this many days (minimum "
+                        + TaskArchiveWorker.MIN_RETENTION_DAYS + "). Applies to all admins.")
+                .setView(etDays)
+                .setPositiveButton("Save", (d, which) -> {
+                    int entered;
+                    try {
+                        entered = Integer.parseInt(etDays.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        Toast.makeText(getContext(), "Enter a number of days.", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    int days = Math.max(TaskArchiveWorker.MIN_RETENTION_DAYS, entered);
+                    TaskArchiveWorker.setRetentionDays(db, days)
+                            .addOnSuccessListener(aVoid -> Toast.makeText(getContext(),
+                                    "Archive window set to " + days + " days", Toast.LENGTH_SHORT).show())
+                            .addOnFailureListener(e -> {
+                                Log.e(TAG, "Failed to save archive window: " + e.getMessage());
+                                Toast.makeText(getContext(), "Failed to save archive window.", Toast.LENGTH_SHORT).show();
+                            });
+                })
+                .setNegativeButton("Cancel", (d, which) -> d.cancel())
+                .show();
+    }
+
     // NEW: Fetch admin details to edit
     private void fetchAdminDetailsAndShowDialog() {
         db.collection("admins")
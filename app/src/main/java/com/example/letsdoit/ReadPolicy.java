@@ -0,0 +1,160 @@
+// src/main/java/com/example/letsdoit/ReadPolicy.java
+package com.example.letsdoit;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Where a one-shot read is answered from. A plain get() (DEFAULT) waits for the server
+ * whenever the device is online and uses the disk cache FirestoreProvider configures only
+ * offline; the other policies let a call site trade freshness for latency on purpose.
+ * The cache holds everything listened to or read before, plus this device's writes.
+ */
+public enum ReadPolicy {
+    /** Server while online, cache offline: Firestore's own get(). */
+    DEFAULT,
+    /** Cache only; fails when the data was never cached. */
+    CACHE_ONLY,
+    /** Server only; fails offline. */
+    SERVER_ONLY,
+    /**
+     * Single documents only: the cache, or the server when the doc was never cached. A
+     * cached query result can be partial, so queries read like DEFAULT.
+     */
+    CACHE_FIRST,
+    /** read() only: the cached answer at once if there is one, then the server's. */
+    CACHE_THEN_SERVER;
+
+    private static final String TAG = "ReadPolicy";
+
+    public interface OnReadListener<T> {
+        /**
+         * Called up to twice for CACHE_THEN_SERVER: the cached answer, then the server's
+         * unless it has the same data. getMetadata().isFromCache() tells them apart.
+         */
+        void onRead(T snapshot);
+
+        /**
+         * CACHE_THEN_SERVER only: the server answered with the data already delivered.
+         */
+        default void onReadConfirmed(T snapshot) {
+        }
+
+        default void onReadError(Exception e) {
+            Log.e(TAG, "Read failed", e);
+        }
+    }
+
+    /**
+     * One answer; CACHE_THEN_SERVER behaves like DEFAULT here.
+     */
+    public com.google.android.gms.tasks.Task<DocumentSnapshot> get(DocumentReference ref) {
+        return get(ref::get, DocumentSnapshot::exists);
+    }
+
+    public com.google.android.gms.tasks.Task<QuerySnapshot> get(Query query) {
+        return forQuery().get(query::get, snapshot -> !snapshot.isEmpty());
+    }
+
+    public void read(DocumentReference ref, OnReadListener<DocumentSnapshot> listener) {
+        read(ref::get, DocumentSnapshot::exists, ReadPolicy::sameDocument, listener);
+    }
+
+    public void read(Query query, OnReadListener<QuerySnapshot> listener) {
+        forQuery().read(query::get, snapshot -> !snapshot.isEmpty(), ReadPolicy::sameDocuments,
+                listener);
+    }
+
+    private ReadPolicy forQuery() {
+        return this == CACHE_FIRST ? DEFAULT : this;
+    }
+
+    private <T> com.google.android.gms.tasks.Task<T> get(
+            Function<Source, com.google.android.gms.tasks.Task<T>> source, Predicate<T> hasData) {
+        switch (this) {
+            case CACHE_ONLY:
+                return source.apply(Source.CACHE);
+            case SERVER_ONLY:
+                return source.apply(Source.SERVER);
+            case CACHE_FIRST:
+                return source.apply(Source.CACHE).continueWithTask(cached -> {
+                    if (cached.isSuccessful() && hasData.test(cached.getResult())) {
+                        return cached;
+                    }
+                    return source.apply(Source.DEFAULT);
+                });
+            default:
+                return source.apply(Source.DEFAULT);
+        }
+    }
+
+    private <T> void read(Function<Source, com.google.android.gms.tasks.Task<T>> source,
+                          Predicate<T> hasData, BiPredicate<T, T> same,
+                          OnReadListener<T> listener) {
+        if (this != CACHE_THEN_SERVER) {
+            get(source, hasData)
+                    .addOnSuccessListener(listener::onRead)
+                    .addOnFailureListener(listener::onReadError);
+            return;
+        }
+        // Both reads complete on the main thread, so plain flags are enough
+        List<T> delivered = new ArrayList<>(1);
+        boolean[] serverAnswered = {false};
+        source.apply(Source.CACHE).addOnSuccessListener(cached -> {
+            if (!serverAnswered[0] && hasData.test(cached)) {
+                delivered.add(cached);
+                listener.onRead(cached);
+            }
+        });
+        source.apply(Source.SERVER)
+                .addOnSuccessListener(fresh -> {
+                    serverAnswered[0] = true;
+                    // Unchanged since the cached answer: nothing new to render
+                    if (delivered.isEmpty() || !same.test(delivered.get(0), fresh)) {
+                        listener.onRead(fresh);
+                    } else {
+                        listener.onReadConfirmed(fresh);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    serverAnswered[0] = true;
+                    if (!delivered.isEmpty()) {
+                        // Offline: the cached answer stands
+                        Log.w(TAG, "Server read failed after cached answer: " + e.getMessage());
+                    } else {
+                        listener.onReadError(e);
+                    }
+                });
+    }
+
+    private static boolean sameDocument(DocumentSnapshot a, DocumentSnapshot b) {
+        return a.exists() == b.exists() && Objects.equals(a.getData(), b.getData());
+    }
+
+    private static boolean sameDocuments(QuerySnapshot a, QuerySnapshot b) {
+        List<DocumentSnapshot> left = a.getDocuments();
+        List<DocumentSnapshot> right = b.getDocuments();
+        if (left.size() != right.size()) {
+            return false;
+        }
+        for (int i = 0; i < left.size(); i++) {
+            if (!left.get(i).getId().equals(right.get(i).getId())
+                    || !sameDocument(left.get(i), right.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
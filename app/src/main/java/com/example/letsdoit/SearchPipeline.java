@@ -0,0 +1,127 @@
+// src/main/java/com/example/letsdoit/SearchPipeline.java
+package com.example.letsdoit;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Debounced search shared by the task and member lists. submit() waits until typing
+ * pauses for the debounce delay, snapshots the items on the main thread, matches them on
+ * a background thread and posts the result back. Results of a query that was superseded
+ * (or cancelled) are dropped, so only the latest query ever reaches the listener.
+ * submit(), submitNow() and cancel() must be called on the main thread.
+ */
+public class SearchPipeline<T> {
+
+    private static final String TAG = "SearchPipeline";
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    public interface ItemSource<T> {
+        /**
+         * Called on the main thread; the matcher only ever sees the returned list.
+         */
+        List<T> getItems();
+    }
+
+    public interface Matcher<T> {
+        /**
+         * Called on the background thread. Must not touch UI or mutable fragment state.
+         */
+        List<T> match(List<T> items, String query);
+    }
+
+    public interface OnResultsListener<T> {
+        void onResults(String query, List<T> results);
+    }
+
+    // One worker for every list: only the latest query matters, and results come back in order
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final long debounceMillis;
+    private final ItemSource<T> source;
+    private final Matcher<T> matcher;
+    private final OnResultsListener<T> listener;
+
+    private int generation = 0;
+    private Runnable pendingSearch;
+    private Future<?> runningSearch;
+
+    public SearchPipeline(long debounceMillis, ItemSource<T> source, Matcher<T> matcher,
+                          OnResultsListener<T> listener) {
+        this.debounceMillis = debounceMillis;
+        this.source = source;
+        this.matcher = matcher;
+        this.listener = listener;
+    }
+
+    /**
+     * Runs the query once no other submit() arrived for the debounce delay.
+     */
+    public void submit(String query) {
+        schedule(query, debounceMillis);
+    }
+
+    /**
+     * Runs the query without waiting, e.g. after the underlying data or a filter changed.
+     */
+    public void submitNow(String query) {
+        schedule(query, 0);
+    }
+
+    /**
+     * Drops any pending or running query; call from onDestroy/onDestroyView.
+     */
+    public void cancel() {
+        generation++;
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        if (runningSearch != null) {
+            runningSearch.cancel(false);
+            runningSearch = null;
+        }
+    }
+
+    private void schedule(String query, long delayMillis) {
+        cancel();
+        final int searchGeneration = generation;
+        pendingSearch = () -> {
+            pendingSearch = null;
+            run(query, searchGeneration);
+        };
+        if (delayMillis > 0) {
+            mainHandler.postDelayed(pendingSearch, delayMillis);
+        } else {
+            pendingSearch.run();
+        }
+    }
+
+    private void run(String query, int searchGeneration) {
+        final List<T> items = new ArrayList<>(source.getItems());
+        runningSearch = executor.submit(() -> {
+            List<T> results;
+            try {
+                results = matcher.match(items, query);
+            } catch (Exception e) {
+                Log.e(TAG, "Search failed for \"" + query + "\"", e);
+                return;
+            }
+            mainHandler.post(() -> {
+                if (searchGeneration == generation) {
+                    runningSearch = null;
+                    listener.onResults(query, results);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,63 @@
+// src/main/java/com/example/letsdoit/StatsReconcileWorker.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily job that rebuilds the /stats counters of yesterday and today with
+ * StatsReconciler. Scheduled on admin devices only; one rebuild per day is enough.
+ */
+public class StatsReconcileWorker extends Worker {
+
+    private static final String TAG = "StatsReconcileWorker";
+    private static final String WORK_NAME = "stats-reconcile";
+
+    public StatsReconcileWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        PeriodicWorkRequest request =
+                new PeriodicWorkRequest.Builder(StatsReconcileWorker.class, 1, TimeUnit.DAYS)
+                        .setConstraints(constraints)
+                        .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        StatsReconciler reconciler = new StatsReconciler(FirestoreProvider.get());
+        long today = DateKeys.epochDayOf(System.currentTimeMillis());
+        try {
+            for (long epochDay = today - 1; epochDay <= today; epochDay++) {
+                String dateKey = DateKeys.dateKey(epochDay);
+                DailyStats stats = Tasks.await(reconciler.rebuild(dateKey), 60, TimeUnit.SECONDS);
+                Log.d(TAG, "Rebuilt stats " + dateKey + ": done=" + stats.getDone()
+                        + ", pending=" + stats.getPending());
+            }
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Stats reconciliation failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+// src/main/java/com/example/letsdoit/StatsReconciler.java
+package com.example.letsdoit;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds /stats/{dateKey} from the raw dailyStatus docs of that date, overwriting
+ * whatever the incremental counters drifted to. TaskStatusWriter's transactions keep them
+ * exact under concurrent writes, so drift only comes from task edits that change type,
+ * assignees or the AI count rule, and from deleted tasks; this is a repair tool. Reads every task plus one
+ * collection-group query, so it runs from StatsReconcileWorker rather than on a screen.
+ */
+public class StatsReconciler {
+
+    private final FirebaseFirestore db;
+
+    public StatsReconciler(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public com.google.android.gms.tasks.Task<DailyStats> rebuild(String dateKey) {
+        com.google.android.gms.tasks.Task<QuerySnapshot> tasksRead =
+                db.collection("tasks").get();
+        com.google.android.gms.tasks.Task<QuerySnapshot> statusesRead =
+                db.collectionGroup("dailyStatus").whereEqualTo("dateKey", dateKey).get();
+
+        return Tasks.whenAllSuccess(tasksRead, statusesRead).continueWithTask(all -> {
+            List<Task> tasks = new ArrayList<>();
+            for (QueryDocumentSnapshot document : tasksRead.getResult()) {
+                Task task = document.toObject(Task.class);
+                task.setId(document.getId());
+                tasks.add(task);
+            }
+
+            Map<String, TaskDayStatus> statusByTaskId = new HashMap<>();
+            for (QueryDocumentSnapshot document : statusesRead.getResult()) {
+                DocumentReference taskRef = document.getReference().getParent().getParent();
+                if (taskRef != null) {
+                    statusByTaskId.put(taskRef.getId(), document.toObject(TaskDayStatus.class));
+                }
+            }
+
+            DailyStats stats = DailyStats.compute(tasks, statusByTaskId);
+            return db.collection("stats").document(dateKey).set(stats)
+                    .continueWith(write -> {
+                        write.getResult(); // rethrows a failed write
+                        return stats;
+                    });
+        });
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.letsdoit;
 
+import com.google.firebase.firestore.Exclude;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,6 +32,10 @@ public class Task {
     private String remarks;
     private String startDate;
     private String endDate;
+    // Numeric copies of startDate/endDate (local epoch days) so Additional tasks can be
+    // range-queried; null for Permanent tasks. The strings stay authoritative for display.
+    private Long startEpochDay;
+    private Long endEpochDay;
     private String taskType;
 
     // Stores selected days (e.g., ["mon", "wed", "fri"])
@@ -43,6 +49,11 @@ public class Task {
 
     private long timestamp;
 
+    // Compiled from taskType/selectedDays/startDate/endDate on first use; setters reset it.
+    // Volatile: HomeFragment's background thread compiles it for tasks the main thread
+    // also reads. TaskSchedule is immutable, so a duplicate compile is harmless.
+    private volatile TaskSchedule schedule;
+
     public Task() {
         this.requireAiCount = false;
         this.aiCountValue = "";
@@ -64,6 +75,8 @@ public class Task {
         this.assignedTo = assignedTo != null ? assignedTo : new ArrayList<>();
         this.startDate = startDate;
         this.endDate = endDate;
+        this.startEpochDay = TaskSchedule.storedEpochDay(startDate);
+        this.endEpochDay = TaskSchedule.storedEpochDay(endDate);
         this.requireAiCount = requireAiCount;
         this.aiCountValue = "";
         this.timestamp = System.currentTimeMillis();
@@ -103,6 +116,20 @@ public class Task {
 
     public void setSelectedDays(List<String> selectedDays) {
         this.selectedDays = selectedDays;
+        this.schedule = null;
+    }
+
+    /**
+     * Cached schedule for activity checks; not stored in Firestore.
+     */
+    @Exclude
+    public TaskSchedule getSchedule() {
+        TaskSchedule compiled = schedule;
+        if (compiled == null) {
+            compiled = TaskSchedule.of(this);
+            schedule = compiled;
+        }
+        return compiled;
     }
 
 
@@ -302,6 +329,7 @@ public class Task {
 
     public void setStartDate(String startDate) {
         this.startDate = startDate;
+        this.schedule = null;
     }
 
     public String getEndDate() {
@@ -310,6 +338,23 @@ public class Task {
 
     public void setEndDate(String endDate) {
         this.endDate = endDate;
+        this.schedule = null;
+    }
+
+    public Long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public void setStartEpochDay(Long startEpochDay) {
+        this.startEpochDay = startEpochDay;
+    }
+
+    public Long getEndEpochDay() {
+        return endEpochDay;
+    }
+
+    public void setEndEpochDay(Long endEpochDay) {
+        this.endEpochDay = endEpochDay;
     }
 
     public long getTimestamp() {
@@ -357,6 +402,7 @@ public class Task {
 
     public void setTaskType(String taskType) {
         this.taskType = taskType;
+        this.schedule = null;
     }
 
     public long getCompletedDateMillis() {
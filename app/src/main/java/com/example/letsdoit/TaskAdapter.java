@@ -13,16 +13,20 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
-public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder> {
+/**
+ * Task rows backed by a ListAdapter: submitList() diffs the new list against the current
+ * one on a background thread and only rebinds the rows whose content changed.
+ */
+public class TaskAdapter extends ListAdapter<Task, TaskAdapter.TaskViewHolder> {
 
     public interface TaskActionListener {
         void onTaskStatusClick(Task task, int position);
@@ -31,16 +35,45 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         void onAdminTaskClick(Task task, int position); // NEW: For admin click on done tasks
     }
 
-    private List<Task> taskList;
+    private static final DiffUtil.ItemCallback<Task> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Task>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Task oldTask, @NonNull Task newTask) {
+                    return Objects.equals(oldTask.getId(), newTask.getId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Task oldTask, @NonNull Task newTask) {
+                    // Everything onBindViewHolder reads
+                    return Objects.equals(oldTask.getTitle(), newTask.getTitle())
+                            && Objects.equals(oldTask.getDescription(), newTask.getDescription())
+                            && Objects.equals(oldTask.getStatus(), newTask.getStatus())
+                            && Objects.equals(oldTask.getAiCountValue(), newTask.getAiCountValue())
+                            && oldTask.getCompletedDateMillis() == newTask.getCompletedDateMillis()
+                            && oldTask.isRequireAiCount() == newTask.isRequireAiCount()
+                            && Objects.equals(oldTask.getTaskType(), newTask.getTaskType())
+                            && Objects.equals(oldTask.getStartDate(), newTask.getStartDate())
+                            && Objects.equals(oldTask.getEndDate(), newTask.getEndDate())
+                            && Objects.equals(oldTask.getRemarks(), newTask.getRemarks())
+                            && oldTask.getTimestamp() == newTask.getTimestamp()
+                            && Objects.equals(oldTask.getUserCompletedDate(), newTask.getUserCompletedDate())
+                            && Objects.equals(oldTask.getUserAiCount(), newTask.getUserAiCount());
+                }
+            };
+
     private Context context;
     private TaskActionListener listener;
     private String loggedInUserRole;
     private String loggedInUserEmail;
 
-    private Map<String, String> userDisplayNameMap = new java.util.HashMap<>();
+    private Map<String, String> userDisplayNameMap = new HashMap<>();
 
-    public TaskAdapter(List<Task> taskList, Context context, TaskActionListener listener, String loggedInUserRole, String loggedInUserEmail) {
-        this.taskList = taskList;
+    // Firestore IDs are strings; each one gets a stable long for the lifetime of the adapter
+    private final Map<String, Long> stableIds = new HashMap<>();
+
+    public TaskAdapter(Context context, TaskActionListener listener, String loggedInUserRole, String loggedInUserEmail) {
+        super(DIFF_CALLBACK);
+        setHasStableIds(true);
         this.context = context;
         this.listener = listener;
         this.loggedInUserRole = loggedInUserRole;
@@ -48,7 +81,23 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
     }
 
     public void setUserDisplayNameMap(Map<String, String> map) {
-        this.userDisplayNameMap = map;
+        // Names are not part of the diff, so rebind visible rows only when they change
+        if (userDisplayNameMap.equals(map)) {
+            return;
+        }
+        this.userDisplayNameMap = new HashMap<>(map);
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String id = getItem(position).getId();
+        Long stableId = stableIds.get(id);
+        if (stableId == null) {
+            stableId = (long) stableIds.size();
+            stableIds.put(id, stableId);
+        }
+        return stableId;
     }
 
     @NonNull
@@ -60,7 +109,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
-        Task task = taskList.get(position);
+        Task task = getItem(position);
 
         // --- 1. Title and Description ---
         holder.tvTitle.setText(task.getTitle() != null ? task.getTitle() : "No Title");
@@ -168,8 +217,7 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             holder.tvRemarks.setVisibility(View.GONE);
         }
 
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-        holder.tvTimestamp.setText(sdf.format(new Date(task.getTimestamp())));
+        holder.tvTimestamp.setText(DateKeys.formatTimestampDate(task.getTimestamp()));
 
         holder.tvFiles.setVisibility(View.GONE);
 
@@ -178,14 +226,16 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             holder.llAdminActions.setVisibility(View.VISIBLE);
 
             holder.btnEditTask.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTaskEditClick(task, position);
+                int pos = holder.getBindingAdapterPosition();
+                if (listener != null && pos != RecyclerView.NO_POSITION) {
+                    listener.onTaskEditClick(getItem(pos), pos);
                 }
             });
 
             holder.btnDeleteTask.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTaskDeleteClick(task, position);
+                int pos = holder.getBindingAdapterPosition();
+                if (listener != null && pos != RecyclerView.NO_POSITION) {
+                    listener.onTaskDeleteClick(getItem(pos), pos);
                 }
             });
         } else {
@@ -195,8 +245,9 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         // --- 7. Card Click Logic ---
         if ("user".equals(loggedInUserRole)) {
             holder.cardView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTaskStatusClick(task, position);
+                int pos = holder.getBindingAdapterPosition();
+                if (listener != null && pos != RecyclerView.NO_POSITION) {
+                    listener.onTaskStatusClick(getItem(pos), pos);
                 }
             });
             holder.cardView.setClickable(true);
@@ -205,8 +256,9 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
             // UPDATED: Admin can click on DONE tasks to see who completed them
             if (taskStatus.equals("completed")) {
                 holder.cardView.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onAdminTaskClick(task, position);
+                    int pos = holder.getBindingAdapterPosition();
+                    if (listener != null && pos != RecyclerView.NO_POSITION) {
+                        listener.onAdminTaskClick(getItem(pos), pos);
                     }
                 });
                 holder.cardView.setClickable(true);
@@ -219,11 +271,6 @@ public class TaskAdapter extends RecyclerView.Adapter<TaskAdapter.TaskViewHolder
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return taskList.size();
-    }
-
     static class TaskViewHolder extends RecyclerView.ViewHolder {
         CardView cardView;
         TextView tvTitle, tvDescription, tvPriority, tvStatus;
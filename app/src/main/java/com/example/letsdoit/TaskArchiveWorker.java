@@ -0,0 +1,102 @@
+// src/main/java/com/example/letsdoit/TaskArchiveWorker.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily job that moves tasks and history older than the retention window into /archive
+ * with TaskArchiver. Scheduled on admin devices only, while charging and on an unmetered
+ * network, since a first run over a long history can move many documents.
+ * The retention window is shared by all admins in /settings/archive, since any of their
+ * devices may run the job for the whole organisation.
+ */
+public class TaskArchiveWorker extends Worker {
+
+    private static final String TAG = "TaskArchiveWorker";
+    private static final String WORK_NAME = "task-archive";
+    private static final String KEY_RETENTION_DAYS = "retentionDays";
+
+    public static final int DEFAULT_RETENTION_DAYS = 90;
+    // Keeps the dashboard, StatsReconciler (yesterday and today) and recent history hot
+    public static final int MIN_RETENTION_DAYS = 30;
+
+    public TaskArchiveWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request =
+                new PeriodicWorkRequest.Builder(TaskArchiveWorker.class, 1, TimeUnit.DAYS)
+                        .setConstraints(constraints)
+                        .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    static DocumentReference settingsRef(FirebaseFirestore db) {
+        return db.collection("settings").document("archive");
+    }
+
+    /**
+     * Days of history kept in the hot collections; older data is archived. The default
+     * when the setting was never saved or can't be read.
+     */
+    public static com.google.android.gms.tasks.Task<Integer> readRetentionDays(FirebaseFirestore db) {
+        return settingsRef(db).get().continueWith(read ->
+                retentionDaysOf(read.isSuccessful() ? read.getResult() : null));
+    }
+
+    public static com.google.android.gms.tasks.Task<Void> setRetentionDays(FirebaseFirestore db,
+                                                                           int days) {
+        return settingsRef(db).set(Collections.singletonMap(KEY_RETENTION_DAYS,
+                Math.max(MIN_RETENTION_DAYS, days)), SetOptions.merge());
+    }
+
+    static int retentionDaysOf(@Nullable DocumentSnapshot settings) {
+        Long days = settings != null ? settings.getLong(KEY_RETENTION_DAYS) : null;
+        return days != null ? Math.max(MIN_RETENTION_DAYS, days.intValue()) : DEFAULT_RETENTION_DAYS;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseFirestore db = FirestoreProvider.get();
+        long today = DateKeys.epochDayOf(System.currentTimeMillis());
+        try {
+            // From the server: a stale cached window could archive more than was agreed
+            DocumentSnapshot settings = Tasks.await(ReadPolicy.SERVER_ONLY.get(settingsRef(db)),
+                    60, TimeUnit.SECONDS);
+            long cutoff = today - retentionDaysOf(settings);
+            int moved = new TaskArchiver(db).archiveBefore(cutoff);
+            Log.d(TAG, "Archived " + moved + " documents before " + DateKeys.dateKey(cutoff));
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Archiving failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+// src/main/java/com/example/letsdoit/TaskArchiver.java
+package com.example.letsdoit;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves cold documents out of the hot collections into /archive, which nothing listens to:
+ * - Additional tasks that ended before the cutoff, with their whole dailyStatus history,
+ *   go to /archive/{taskId} and /archive/{taskId}/dailyStatusArchive/{dateKey},
+ * - dailyStatus docs older than the cutoff of the remaining tasks go to
+ *   /archive/{taskId}/dailyStatusArchive/{dateKey} without a parent doc, so listing
+ *   /archive returns archived tasks only. That history is archive-only: nothing restores
+ *   it, as /dayIndex and /stats keep answering those dates (the copies are kept for
+ *   exports and audits). It only comes back with its task, should the task itself be
+ *   archived and restored later.
+ * The history subcollection has its own name so that collectionGroup("dailyStatus")
+ * queries (DayStatusResolver, StatsReconciler) never match archived copies.
+ * A restored task carries restoredEpochDay; neither it nor its history is archived again
+ * while that day is inside the retention window, even though it has still ended.
+ * Each doc is copied and deleted in the same batch, and a task doc moves after its
+ * history, so an interrupted run loses nothing and the next run picks up the rest.
+ * /dayIndex and /stats stay: one small doc per day, and they still answer history views.
+ */
+public class TaskArchiver {
+
+    static final String ARCHIVE = "archive";
+    static final String ARCHIVED_HISTORY = "dailyStatusArchive";
+    private static final String ARCHIVED_AT = "archivedAt";
+    static final String RESTORED_EPOCH_DAY = "restoredEpochDay";
+    // Firestore allows at most 500 writes per batch; a move is two
+    private static final int MAX_WRITES = 400;
+    // Old history is read in pages of this many docs
+    private static final int PAGE_SIZE = 200;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private final FirebaseFirestore db;
+
+    public TaskArchiver(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Archives everything dated before cutoffEpochDay and returns the number of moved
+     * docs. Blocks on every read and commit, so it runs from TaskArchiveWorker only.
+     */
+    public int archiveBefore(long cutoffEpochDay) throws Exception {
+        BatchMover mover = new BatchMover();
+        Set<String> archivedTaskIds = new HashSet<>();
+
+        // Restored since the cutoff: kept in /tasks with all of their history
+        Set<String> keptTaskIds = new HashSet<>();
+        for (QueryDocumentSnapshot task : await(db.collection("tasks")
+                .whereGreaterThanOrEqualTo(RESTORED_EPOCH_DAY, cutoffEpochDay)
+                .get())) {
+            keptTaskIds.add(task.getId());
+        }
+
+        QuerySnapshot ended = await(db.collection("tasks")
+                .whereEqualTo("taskType", "Additional")
+                .whereLessThan("endEpochDay", cutoffEpochDay)
+                .get());
+        for (QueryDocumentSnapshot task : ended) {
+            if (keptTaskIds.contains(task.getId())) {
+                continue;
+            }
+            DocumentReference archived = db.collection(ARCHIVE).document(task.getId());
+            for (QueryDocumentSnapshot status : await(task.getReference().collection("dailyStatus").get())) {
+                mover.move(status, archived.collection(ARCHIVED_HISTORY).document(status.getId()), null);
+            }
+            mover.move(task, archived, System.currentTimeMillis());
+            archivedTaskIds.add(task.getId());
+        }
+
+        Query oldStatuses = db.collectionGroup("dailyStatus")
+                .whereLessThan("dateKey", DateKeys.dateKey(cutoffEpochDay))
+                .orderBy("dateKey")
+                .limit(PAGE_SIZE);
+        DocumentSnapshot last = null;
+        QuerySnapshot page;
+        do {
+            page = await((last == null ? oldStatuses : oldStatuses.startAfter(last)).get());
+            for (QueryDocumentSnapshot status : page) {
+                DocumentReference taskRef = status.getReference().getParent().getParent();
+                if (taskRef == null || archivedTaskIds.contains(taskRef.getId())
+                        || keptTaskIds.contains(taskRef.getId())) {
+                    continue;
+                }
+                mover.move(status, db.collection(ARCHIVE).document(taskRef.getId())
+                        .collection(ARCHIVED_HISTORY).document(status.getId()), null);
+            }
+            if (!page.isEmpty()) {
+                last = page.getDocuments().get(page.size() - 1);
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        mover.flush();
+        return mover.moved;
+    }
+
+    /**
+     * Archived tasks, most recently archived first.
+     */
+    public com.google.android.gms.tasks.Task<List<Task>> listArchived() {
+        return db.collection(ARCHIVE)
+                .orderBy(ARCHIVED_AT, Query.Direction.DESCENDING)
+                .get()
+                .continueWith(read -> {
+                    List<Task> tasks = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : read.getResult()) {
+                        Task task = document.toObject(Task.class);
+                        task.setId(document.getId());
+                        tasks.add(task);
+                    }
+                    return tasks;
+                });
+    }
+
+    /**
+     * Moves an archived task and all of its archived history back under /tasks. The
+     * history is restored first and the task doc last, so a failed restore stays listed
+     * in the archive and can simply be retried. The task doc gets today's
+     * restoredEpochDay, which keeps the next archive runs from moving it straight back.
+     */
+    public com.google.android.gms.tasks.Task<Void> restore(String taskId) {
+        DocumentReference archived = db.collection(ARCHIVE).document(taskId);
+        DocumentReference taskRef = db.collection("tasks").document(taskId);
+        com.google.android.gms.tasks.Task<DocumentSnapshot> taskRead = archived.get();
+        com.google.android.gms.tasks.Task<QuerySnapshot> historyRead =
+                archived.collection(ARCHIVED_HISTORY).get();
+
+        return Tasks.whenAllSuccess(taskRead, historyRead).continueWithTask(reads -> {
+            DocumentSnapshot task = taskRead.getResult();
+            if (!task.exists()) {
+                throw new IllegalStateException("Task " + taskId + " is not archived");
+            }
+
+            List<com.google.android.gms.tasks.Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = db.batch();
+            int writes = 0;
+            for (QueryDocumentSnapshot status : historyRead.getResult()) {
+                batch.set(taskRef.collection("dailyStatus").document(status.getId()), status.getData());
+                batch.delete(status.getReference());
+                writes += 2;
+                if (writes >= MAX_WRITES) {
+                    commits.add(batch.commit());
+                    batch = db.batch();
+                    writes = 0;
+                }
+            }
+            commits.add(batch.commit());
+
+            Map<String, Object> data = new HashMap<>(task.getData());
+            data.remove(ARCHIVED_AT);
+            data.put(RESTORED_EPOCH_DAY, DateKeys.epochDayOf(System.currentTimeMillis()));
+            return Tasks.whenAll(commits).continueWithTask(history -> {
+                history.getResult(); // rethrows a failed history commit
+                WriteBatch taskBatch = db.batch();
+                taskBatch.set(taskRef, data);
+                taskBatch.delete(archived);
+                return taskBatch.commit();
+            });
+        });
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Copy-then-delete pairs, committed in batches of MAX_WRITES writes.
+     */
+    private class BatchMover {
+        private WriteBatch batch = db.batch();
+        private int writes = 0;
+        int moved = 0;
+
+        void move(DocumentSnapshot source, DocumentReference target, @Nullable Long archivedAt)
+                throws Exception {
+            Map<String, Object> data = new HashMap<>(source.getData());
+            if (archivedAt != null) {
+                data.put(ARCHIVED_AT, archivedAt);
+            }
+            batch.set(target, data);
+            batch.delete(source.getReference());
+            writes += 2;
+            moved++;
+            if (writes >= MAX_WRITES) {
+                flush();
+            }
+        }
+
+        void flush() throws Exception {
+            if (writes == 0) {
+                return;
+            }
+            await(batch.commit());
+            batch = db.batch();
+            writes = 0;
+        }
+    }
+}
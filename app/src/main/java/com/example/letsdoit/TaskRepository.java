@@ -0,0 +1,495 @@
+// src/main/java/com/example/letsdoit/TaskRepository.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Process-wide cache of the tasks the signed-in user can see. Snapshot listeners keep an
+ * in-memory map of Task objects current; fragments read immutable lists from it, so tab
+ * switches and onResume don't re-download the collection. After the first snapshot only
+ * the DocumentChange deltas are applied and forwarded to listeners.
+ * The scope is filtered on the server: the Permanent tasks plus the Additional tasks
+ * (for members only those assigned to them) that have not ended before the day the
+ * listeners started (see scopedQueries). The payload therefore scales with the user's
+ * current tasks; ended ones are read on demand through fetchEndedTasks. Until
+ * EpochDayBackfillWorker has recorded the fields those filters need in
+ * /migrations/backfill, the whole collection is listened to instead and the screens
+ * filter it, as they always have.
+ * With a LocalStore attached, a cold start is served from the on-device mirror until the
+ * first server snapshot replaces it, and every snapshot is written back to the mirror.
+ * All calls and callbacks happen on the main thread.
+ */
+public class TaskRepository {
+
+    private static final String TAG = "TaskRepository";
+
+    public interface TaskListener {
+        void onTasksUpdated(List<Task> tasks);
+        void onTasksError(Exception e);
+
+        /**
+         * Called for every snapshot after the first one with only the documents that
+         * changed. Listeners that don't handle deltas just recompute from the full list.
+         */
+        default void onTasksChanged(List<Task> tasks, List<TaskChange> changes) {
+            onTasksUpdated(tasks);
+        }
+    }
+
+    /**
+     * One added, modified or removed task. For REMOVED, task is the last cached version.
+     */
+    public static class TaskChange {
+        private final DocumentChange.Type type;
+        private final Task task;
+
+        TaskChange(DocumentChange.Type type, Task task) {
+            this.type = type;
+            this.task = task;
+        }
+
+        public DocumentChange.Type getType() {
+            return type;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+    }
+
+    private static TaskRepository instance;
+
+    private final Map<String, Task> tasksById = new LinkedHashMap<>();
+    private final List<TaskListener> listeners = new ArrayList<>();
+    private List<Task> tasks = Collections.emptyList();
+    private final List<ListenerRegistration> registrations = new ArrayList<>();
+    // Ids each scoped query currently returns; a task leaves the cache only when no
+    // query has it (a type change can add it to one query before removing it from another)
+    private final List<Set<String>> idsByQuery = new ArrayList<>();
+    // Server tasks collected until every query delivered its first snapshot
+    private final Map<String, Task> pendingServerTasks = new LinkedHashMap<>();
+    private int pendingFirstSnapshots = 0;
+    private boolean loaded = false;
+    // loaded may come from the local mirror; the first server snapshot always replaces it
+    private boolean serverLoaded = false;
+    @Nullable
+    private LocalSync localSync;
+    @Nullable
+    private String scopeEmail;
+    private boolean scopeAll = true;
+    // First day the Additional listener covers; older tasks come from fetchEndedTasks
+    private long listenFromEpochDay;
+    // Whether the filtered queries find every task (see readBackfillState); null until
+    // /migrations/backfill has been read
+    @Nullable
+    private Boolean scopedQueriesReady;
+    private boolean readingBackfillState = false;
+
+    public static synchronized TaskRepository getInstance() {
+        if (instance == null) {
+            instance = new TaskRepository();
+        }
+        return instance;
+    }
+
+    private TaskRepository() {
+    }
+
+    /**
+     * Enables the on-device mirror; called once from MainActivity before any listener.
+     */
+    public void attachLocalStore(Context context) {
+        if (localSync == null) {
+            localSync = LocalSync.getInstance(context);
+        }
+    }
+
+    /**
+     * Limits the cache to the tasks this user can see; called from MainActivity after
+     * login. Without a scope (or for admins) the Additional tasks of every user are cached.
+     */
+    public void setScope(@Nullable String email, @Nullable String role) {
+        boolean all = email == null || "admin".equalsIgnoreCase(role);
+        if (all == scopeAll && Objects.equals(email, scopeEmail)) {
+            return;
+        }
+        scopeAll = all;
+        scopeEmail = email;
+        if (!registrations.isEmpty()) {
+            // Re-query with the new scope; the next server snapshot replaces the cache
+            stopListening();
+            startListening();
+        }
+    }
+
+    /**
+     * Registers a listener and starts the snapshot listener if needed. When the cache is
+     * already loaded the listener is called immediately with the current tasks.
+     */
+    public void addListener(TaskListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        startListening();
+        if (loaded) {
+            listener.onTasksUpdated(tasks);
+        }
+    }
+
+    public void removeListener(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Immutable snapshot of all cached tasks (empty until the first snapshot arrives).
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    @Nullable
+    public Task getTask(String taskId) {
+        return tasksById.get(taskId);
+    }
+
+    /**
+     * One-shot access for callers without a UI lifecycle (e.g. the notification receiver):
+     * answers from memory when the cache is loaded for the same user, otherwise runs the
+     * scoped queries once. Callers that must work offline fall back to LocalSync in
+     * onTasksError.
+     */
+    public void fetchTasks(@Nullable String email, @Nullable String role, TaskListener callback) {
+        boolean all = email == null || "admin".equalsIgnoreCase(role);
+        if (loaded && all == scopeAll && (all || email.equals(scopeEmail))) {
+            callback.onTasksUpdated(tasks);
+            return;
+        }
+        List<com.google.android.gms.tasks.Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (Query query : scopedQueries(all, email, DateKeys.epochDayOf(System.currentTimeMillis()),
+                Boolean.TRUE.equals(scopedQueriesReady))) {
+            reads.add(query.get());
+        }
+        Tasks.whenAllSuccess(reads)
+                .addOnSuccessListener(results -> {
+                    Map<String, Task> union = new LinkedHashMap<>();
+                    for (com.google.android.gms.tasks.Task<QuerySnapshot> read : reads) {
+                        for (Task task : parse(read.getResult())) {
+                            union.put(task.getId(), task);
+                        }
+                    }
+                    callback.onTasksUpdated(Collections.unmodifiableList(new ArrayList<>(union.values())));
+                })
+                .addOnFailureListener(callback::onTasksError);
+    }
+
+    /**
+     * Additional tasks in scope that were active on a past epochDay but ended before the
+     * listeners' window, i.e. the tasks missing from getTasks() for that day. One range
+     * query on endEpochDay; the start bound is checked on the client because Firestore
+     * allows range filters on a single field only. Empty for days inside the window.
+     */
+    public void fetchEndedTasks(@Nullable String email, @Nullable String role, long epochDay,
+                                TaskListener callback) {
+        boolean all = email == null || "admin".equalsIgnoreCase(role);
+        long windowStart = registrations.isEmpty()
+                ? DateKeys.epochDayOf(System.currentTimeMillis()) : listenFromEpochDay;
+        if (epochDay >= windowStart) {
+            callback.onTasksUpdated(Collections.emptyList());
+            return;
+        }
+        additionalTasks(all, email)
+                .whereGreaterThanOrEqualTo("endEpochDay", epochDay)
+                .whereLessThan("endEpochDay", windowStart)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    List<Task> ended = new ArrayList<>();
+                    for (Task task : parse(snapshot)) {
+                        Long startEpochDay = task.getStartEpochDay();
+                        if (startEpochDay != null && startEpochDay <= epochDay) {
+                            ended.add(task);
+                        }
+                    }
+                    callback.onTasksUpdated(Collections.unmodifiableList(ended));
+                })
+                .addOnFailureListener(callback::onTasksError);
+    }
+
+    /**
+     * Drops the cache and the snapshot listeners, e.g. on logout.
+     */
+    public void clear() {
+        stopListening();
+        listeners.clear();
+        tasksById.clear();
+        tasks = Collections.emptyList();
+        loaded = false;
+        scopeAll = true;
+        scopeEmail = null;
+        if (localSync != null) {
+            localSync.clear();
+        }
+    }
+
+    /**
+     * The server-side filter of a scope, as two disjoint queries merged by id:
+     * - taskType == "Permanent",
+     * - taskType == "Additional" (for members, assignedTo array-contains the email) and
+     *   endEpochDay >= fromEpochDay
+     * (composite indexes in firestore.indexes.json). Both match the exact values the
+     * add/edit screens write. Tasks without an exact taskType match neither, and
+     * Additional tasks without endEpochDay miss the range filter, so until
+     * EpochDayBackfillWorker has written both fields everywhere (ready) the whole
+     * collection is queried instead, for admins and members alike.
+     */
+    private static List<Query> scopedQueries(boolean all, @Nullable String email,
+                                             long fromEpochDay, boolean ready) {
+        CollectionReference collection = FirestoreProvider.get().collection("tasks");
+        if (!ready) {
+            return Collections.singletonList(collection);
+        }
+        return Arrays.asList(
+                collection.whereEqualTo("taskType", "Permanent"),
+                additionalTasks(all, email).whereGreaterThanOrEqualTo("endEpochDay", fromEpochDay));
+    }
+
+    private static Query additionalTasks(boolean all, @Nullable String email) {
+        Query query = FirestoreProvider.get().collection("tasks")
+                .whereEqualTo("taskType", "Additional");
+        return all ? query : query.whereArrayContains("assignedTo", email);
+    }
+
+    private void startListening() {
+        if (!registrations.isEmpty() || readingBackfillState) {
+            return;
+        }
+        if (scopedQueriesReady == null) {
+            readBackfillState();
+            return;
+        }
+        if (!loaded && localSync != null) {
+            seedFromLocal();
+        }
+        boolean ready = scopedQueriesReady;
+        // The unfiltered query has no window: every ended task is already cached
+        listenFromEpochDay = ready ? DateKeys.epochDayOf(System.currentTimeMillis()) : Long.MIN_VALUE;
+        List<Query> queries = scopedQueries(scopeAll, scopeEmail, listenFromEpochDay, ready);
+        idsByQuery.clear();
+        pendingServerTasks.clear();
+        pendingFirstSnapshots = queries.size();
+        serverLoaded = false;
+        for (Query query : queries) {
+            Set<String> queryIds = new HashSet<>();
+            idsByQuery.add(queryIds);
+            boolean[] firstSnapshot = {true};
+            registrations.add(query.addSnapshotListener((snapshot, e) -> {
+                if (e != null) {
+                    Log.e(TAG, "Task snapshot listener failed", e);
+                    // The listeners are dead after an error; allow the next addListener to
+                    // restart them and rebuild the cache from their first full snapshots
+                    stopListening();
+                    loaded = false;
+                    for (TaskListener listener : new ArrayList<>(listeners)) {
+                        listener.onTasksError(e);
+                    }
+                    return;
+                }
+                if (snapshot == null) {
+                    return;
+                }
+
+                if (!serverLoaded) {
+                    applyChanges(pendingServerTasks, queryIds, snapshot.getDocumentChanges());
+                    if (firstSnapshot[0]) {
+                        firstSnapshot[0] = false;
+                        pendingFirstSnapshots--;
+                    }
+                    if (pendingFirstSnapshots == 0) {
+                        List<Task> parsed = new ArrayList<>(pendingServerTasks.values());
+                        pendingServerTasks.clear();
+                        serverLoaded = true;
+                        replaceAll(parsed);
+                        if (localSync != null) {
+                            localSync.saveTasks(parsed);
+                        }
+                    }
+                    return;
+                }
+
+                List<TaskChange> changes = applyChanges(tasksById, queryIds, snapshot.getDocumentChanges());
+                if (changes.isEmpty()) {
+                    return;
+                }
+                tasks = Collections.unmodifiableList(new ArrayList<>(tasksById.values()));
+                if (localSync != null) {
+                    localSync.saveTaskChanges(changes);
+                }
+                List<TaskChange> delivered = Collections.unmodifiableList(changes);
+                for (TaskListener listener : new ArrayList<>(listeners)) {
+                    listener.onTasksChanged(tasks, delivered);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Reads /migrations/backfill (cached answer first) before the listeners start. If the
+     * server's answer differs from the cached one, the listeners restart with it.
+     */
+    private void readBackfillState() {
+        readingBackfillState = true;
+        ReadPolicy.CACHE_THEN_SERVER.read(EpochDayBackfillWorker.stateRef(FirestoreProvider.get()),
+                new ReadPolicy.OnReadListener<DocumentSnapshot>() {
+                    @Override
+                    public void onRead(DocumentSnapshot state) {
+                        applyBackfillState(EpochDayBackfillWorker.isDone(state,
+                                EpochDayBackfillWorker.STEP_TASK_TYPES)
+                                && EpochDayBackfillWorker.isDone(state,
+                                EpochDayBackfillWorker.STEP_EPOCH_DAYS));
+                    }
+
+                    @Override
+                    public void onReadError(Exception e) {
+                        Log.w(TAG, "Could not read backfill state, listening unfiltered", e);
+                        applyBackfillState(false);
+                    }
+                });
+    }
+
+    private void applyBackfillState(boolean ready) {
+        readingBackfillState = false;
+        if (Objects.equals(scopedQueriesReady, ready)) {
+            return;
+        }
+        scopedQueriesReady = ready;
+        if (!registrations.isEmpty()) {
+            stopListening();
+            startListening();
+        } else if (!listeners.isEmpty()) {
+            startListening();
+        }
+    }
+
+    private void stopListening() {
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+        registrations.clear();
+        idsByQuery.clear();
+        pendingServerTasks.clear();
+        serverLoaded = false;
+    }
+
+    /**
+     * Renders the last mirrored tasks while the snapshot listeners connect. Skipped if
+     * the server answered first or the mirror is empty (first run).
+     */
+    private void seedFromLocal() {
+        localSync.loadTasks(cached -> {
+            if (loaded || registrations.isEmpty() || cached.isEmpty()) {
+                return;
+            }
+            replaceAll(cached);
+        });
+    }
+
+    private void replaceAll(List<Task> all) {
+        tasksById.clear();
+        for (Task task : all) {
+            tasksById.put(task.getId(), task);
+        }
+        tasks = Collections.unmodifiableList(new ArrayList<>(tasksById.values()));
+        loaded = true;
+        for (TaskListener listener : new ArrayList<>(listeners)) {
+            listener.onTasksUpdated(tasks);
+        }
+    }
+
+    private List<TaskChange> applyChanges(Map<String, Task> target, Set<String> queryIds,
+                                          List<DocumentChange> documentChanges) {
+        List<TaskChange> changes = new ArrayList<>();
+        for (DocumentChange change : documentChanges) {
+            String id = change.getDocument().getId();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                queryIds.remove(id);
+                if (isInAnyQuery(id)) {
+                    continue;
+                }
+                Task removed = target.remove(id);
+                if (removed != null) {
+                    changes.add(new TaskChange(DocumentChange.Type.REMOVED, removed));
+                }
+                continue;
+            }
+            Task task = parse(change.getDocument());
+            if (task != null) {
+                queryIds.add(id);
+                // put() keeps the original position of a modified task
+                boolean known = target.containsKey(id);
+                target.put(id, task);
+                changes.add(new TaskChange(known ? DocumentChange.Type.MODIFIED
+                        : DocumentChange.Type.ADDED, task));
+            }
+        }
+        return changes;
+    }
+
+    private boolean isInAnyQuery(String id) {
+        for (Set<String> ids : idsByQuery) {
+            if (ids.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Task> parse(QuerySnapshot snapshot) {
+        List<Task> parsed = new ArrayList<>();
+        for (QueryDocumentSnapshot document : snapshot) {
+            Task task = parse(document);
+            if (task != null) {
+                parsed.add(task);
+            }
+        }
+        return Collections.unmodifiableList(parsed);
+    }
+
+    @Nullable
+    private static Task parse(DocumentSnapshot document) {
+        try {
+            Task task = document.toObject(Task.class);
+            if (task != null) {
+                task.setId(document.getId());
+            }
+            return task;
+        } catch (Exception e) {
+            Log.e(TAG, "Error parsing task: " + document.getId(), e);
+            return null;
+        }
+    }
+}
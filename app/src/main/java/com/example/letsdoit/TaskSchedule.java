@@ -0,0 +1,165 @@
+// src/main/java/com/example/letsdoit/TaskSchedule.java
+package com.example.letsdoit;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * When a task is active, compiled once from its Task fields so date checks don't parse
+ * strings or build Calendars per task:
+ * - Permanent tasks: a 7-bit weekday mask (bit 0 = Monday ... bit 6 = Sunday),
+ * - Additional tasks: an inclusive [startEpochDay, endEpochDay] range; a task missing
+ *   either date is never active.
+ * Epoch days count local calendar days since 1970-01-01. Instances are immutable.
+ */
+public final class TaskSchedule {
+
+    private static final String[] WEEKDAYS = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+    private static final String[] MONTHS = {
+            "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    static final long NO_DAY = Long.MIN_VALUE;
+
+    private final boolean weekly;
+    private final int weekdayMask;
+    private final long startEpochDay;
+    private final long endEpochDay;
+
+    private TaskSchedule(boolean weekly, int weekdayMask, long startEpochDay, long endEpochDay) {
+        this.weekly = weekly;
+        this.weekdayMask = weekdayMask;
+        this.startEpochDay = startEpochDay;
+        this.endEpochDay = endEpochDay;
+    }
+
+    public static TaskSchedule weekly(int weekdayMask) {
+        return new TaskSchedule(true, weekdayMask & 0x7F, NO_DAY, NO_DAY);
+    }
+
+    public static TaskSchedule range(long startEpochDay, long endEpochDay) {
+        return new TaskSchedule(false, 0, startEpochDay, endEpochDay);
+    }
+
+    /**
+     * Compiles the schedule of a task; prefer Task.getSchedule(), which caches it.
+     */
+    public static TaskSchedule of(Task task) {
+        if ("permanent".equalsIgnoreCase(task.getTaskType())) {
+            return weekly(weekdayMask(task.getSelectedDays()));
+        }
+        return range(parseDate(task.getStartDate()), parseDate(task.getEndDate()));
+    }
+
+    public boolean isActiveOn(long epochDay) {
+        if (weekly) {
+            return (weekdayMask & (1 << dayOfWeekIndex(epochDay))) != 0;
+        }
+        return startEpochDay != NO_DAY && endEpochDay != NO_DAY
+                && epochDay >= startEpochDay && epochDay <= endEpochDay;
+    }
+
+    public boolean isWeekly() {
+        return weekly;
+    }
+
+    public int getWeekdayMask() {
+        return weekdayMask;
+    }
+
+    public long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public long getEndEpochDay() {
+        return endEpochDay;
+    }
+
+    /**
+     * Local calendar day of a timestamp, in the default time zone.
+     */
+    public static long epochDayOf(long millis) {
+        return DateKeys.epochDayOf(millis);
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date (month 1-12). Days past the end
+     * of the month roll over, like the lenient SimpleDateFormat the dates were parsed with.
+     */
+    public static long epochDay(int year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400L);
+        long yearOfEra = y - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        long dayOfYear = (153L * shiftedMonth + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * 0 = Monday ... 6 = Sunday; 1970-01-01 was a Thursday.
+     */
+    static int dayOfWeekIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    static int weekdayMask(List<String> days) {
+        int mask = 0;
+        if (days == null) {
+            return mask;
+        }
+        for (String day : days) {
+            if (day == null) {
+                continue;
+            }
+            String key = day.trim().toLowerCase(Locale.US);
+            for (int i = 0; i < WEEKDAYS.length; i++) {
+                if (WEEKDAYS[i].equals(key)) {
+                    mask |= 1 << i;
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Value of the startEpochDay/endEpochDay task fields for a stored date string: the
+     * parsed epoch day, or null when the date is empty or unreadable (Permanent tasks).
+     */
+    static Long storedEpochDay(String date) {
+        long epochDay = parseDate(date);
+        return epochDay == NO_DAY ? null : epochDay;
+    }
+
+    /**
+     * Parses the "MMM dd, yyyy" dates stored on tasks (e.g. "Jan 05, 2025"), or NO_DAY.
+     */
+    static long parseDate(String date) {
+        if (date == null) {
+            return NO_DAY;
+        }
+        String[] parts = date.trim().split("[\\s,]+");
+        if (parts.length != 3 || parts[0].length() < 3) {
+            return NO_DAY;
+        }
+        String monthKey = parts[0].substring(0, 3).toLowerCase(Locale.US);
+        int month = -1;
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].equals(monthKey)) {
+                month = i + 1;
+                break;
+            }
+        }
+        if (month == -1) {
+            return NO_DAY;
+        }
+        try {
+            int dayOfMonth = Integer.parseInt(parts[1]);
+            int year = Integer.parseInt(parts[2]);
+            return epochDay(year, month, dayOfMonth);
+        } catch (NumberFormatException e) {
+            return NO_DAY;
+        }
+    }
+}
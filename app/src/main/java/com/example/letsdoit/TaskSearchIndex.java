@@ -0,0 +1,205 @@
+// src/main/java/com/example/letsdoit/TaskSearchIndex.java
+package com.example.letsdoit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable substring index over task titles and assignee display names, rebuilt when
+ * the task snapshot or the names change. Every 1-, 2- and 3-character gram of each
+ * lowercased field maps to the sorted positions of the tasks containing it:
+ * - queries up to 3 characters are a single postings lookup,
+ * - longer queries intersect the postings of their trigrams and only verify the
+ *   remaining candidates with contains().
+ * Safe to query from any thread.
+ */
+public class TaskSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final List<Task> tasks;
+    private final String[] titles;
+    private final String[][] assigneeNames;
+    private final Map<String, int[]> postings;
+
+    public TaskSearchIndex(List<Task> tasks, Map<String, String> displayNamesByEmail) {
+        this.tasks = Collections.unmodifiableList(new ArrayList<>(tasks));
+        this.titles = new String[this.tasks.size()];
+        this.assigneeNames = new String[this.tasks.size()][];
+
+        Map<String, PostingsBuilder> building = new HashMap<>();
+        for (int i = 0; i < this.tasks.size(); i++) {
+            Task task = this.tasks.get(i);
+            titles[i] = normalize(task.getTitle());
+            addGrams(building, titles[i], i);
+
+            List<String> names = new ArrayList<>();
+            List<String> assignedTo = task.getAssignedTo();
+            if (assignedTo != null) {
+                for (String email : assignedTo) {
+                    String displayName = displayNamesByEmail.get(email);
+                    if (displayName != null) {
+                        String name = normalize(displayName);
+                        names.add(name);
+                        addGrams(building, name, i);
+                    }
+                }
+            }
+            assigneeNames[i] = names.toArray(new String[0]);
+        }
+
+        Map<String, int[]> built = new HashMap<>(building.size());
+        for (Map.Entry<String, PostingsBuilder> entry : building.entrySet()) {
+            built.put(entry.getKey(), entry.getValue().toArray());
+        }
+        this.postings = built;
+    }
+
+    public static String normalize(String text) {
+        return text != null ? text.trim().toLowerCase(Locale.US) : "";
+    }
+
+    /**
+     * Tasks whose title or any assignee display name contains the query, in index order.
+     */
+    public List<Task> search(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return tasks;
+        }
+
+        List<Task> matches = new ArrayList<>();
+        if (q.length() <= MAX_GRAM) {
+            // The gram itself is the query, so every posting is a match
+            for (int position : postingsFor(q)) {
+                matches.add(tasks.get(position));
+            }
+            return matches;
+        }
+
+        for (int position : candidatesFor(q)) {
+            if (containsQuery(position, q)) {
+                matches.add(tasks.get(position));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Keeps the entries of candidates (e.g. the tasks active on the selected date) that
+     * match the query, preserving their order.
+     */
+    public List<Task> filter(List<Task> candidates, String query) {
+        if (normalize(query).isEmpty()) {
+            return candidates;
+        }
+        Set<String> matchedIds = new HashSet<>();
+        for (Task task : search(query)) {
+            matchedIds.add(task.getId());
+        }
+        List<Task> filtered = new ArrayList<>();
+        for (Task task : candidates) {
+            if (matchedIds.contains(task.getId())) {
+                filtered.add(task);
+            }
+        }
+        return filtered;
+    }
+
+    private int[] candidatesFor(String q) {
+        // Start from the rarest trigram so the intersection shrinks as fast as possible
+        int gramCount = q.length() - MAX_GRAM + 1;
+        int[][] lists = new int[gramCount][];
+        for (int start = 0; start < gramCount; start++) {
+            lists[start] = postingsFor(q.substring(start, start + MAX_GRAM));
+            if (lists[start].length == 0) {
+                return NO_POSTINGS;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private boolean containsQuery(int position, String q) {
+        if (titles[position].contains(q)) {
+            return true;
+        }
+        for (String name : assigneeNames[position]) {
+            if (name.contains(q)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] postingsFor(String gram) {
+        int[] list = postings.get(gram);
+        return list != null ? list : NO_POSTINGS;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static void addGrams(Map<String, PostingsBuilder> building, String text, int position) {
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int start = 0; start + n <= text.length(); start++) {
+                String gram = text.substring(start, start + n);
+                PostingsBuilder builder = building.get(gram);
+                if (builder == null) {
+                    builder = new PostingsBuilder();
+                    building.put(gram, builder);
+                }
+                builder.add(position);
+            }
+        }
+    }
+
+    /**
+     * Sorted, de-duplicated int list; positions arrive in increasing order.
+     */
+    private static class PostingsBuilder {
+        private int[] positions = new int[4];
+        private int size = 0;
+
+        void add(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
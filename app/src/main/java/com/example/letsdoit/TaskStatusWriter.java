@@ -0,0 +1,147 @@
+// src/main/java/com/example/letsdoit/TaskStatusWriter.java
+package com.example.letsdoit;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single place that writes per-day task status. The /tasks/{id}/dailyStatus/{dateKey}
+ * doc, its entry in /dayIndex/{dateKey} and the /stats/{dateKey} counters are committed
+ * in one transaction, together with the read of the status doc the counter deltas are
+ * computed from, so concurrent writes to the same task and day can't skew the counters.
+ * StatsReconciler is only needed to repair them after edits that move a task between
+ * buckets. Transactions need the server, so offline writes fail and are queued by the
+ * caller (WriteQueue).
+ * writeUserStatus also updates the caller's entries of the task's userStatus,
+ * userCompletedDate and userAiCount maps in that transaction.
+ */
+public class TaskStatusWriter {
+
+    private final FirebaseFirestore db;
+
+    public TaskStatusWriter(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public com.google.android.gms.tasks.Task<Void> writeDayStatus(Task task,
+                                                                  TaskDayStatus dayStatus) {
+        return write(task, null, dayStatus);
+    }
+
+    /**
+     * writeDayStatus plus the email's entries in the task doc. Only those three entries
+     * are written, so members updating the same task at once don't overwrite each other.
+     */
+    public com.google.android.gms.tasks.Task<Void> writeUserStatus(Task task, String email,
+                                                                   TaskDayStatus dayStatus) {
+        return write(task, email, dayStatus);
+    }
+
+    private com.google.android.gms.tasks.Task<Void> write(Task task, @Nullable String email,
+                                                          TaskDayStatus dayStatus) {
+        return db.runTransaction(transaction -> {
+            TaskDayStatus previous = readPrevious(transaction, task.getId(), dayStatus.getDateKey());
+            addUserStatus(transaction, task, email, previous, dayStatus);
+            return null;
+        });
+    }
+
+    /**
+     * The day doc a status write replaces, read inside the caller's transaction. Must run
+     * before any write of that transaction.
+     */
+    @Nullable
+    TaskDayStatus readPrevious(Transaction transaction, String taskId, String dateKey)
+            throws FirebaseFirestoreException {
+        DocumentSnapshot snapshot = transaction.get(statusRef(taskId, dateKey));
+        return snapshot.exists() ? snapshot.toObject(TaskDayStatus.class) : null;
+    }
+
+    /**
+     * Adds the writes of writeUserStatus (or, with a null email, writeDayStatus) to a
+     * transaction. previous is the day doc as readPrevious returned it.
+     */
+    void addUserStatus(Transaction transaction, Task task, @Nullable String email,
+                       @Nullable TaskDayStatus previous, TaskDayStatus dayStatus) {
+        String dateKey = dayStatus.getDateKey();
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(task.getId(), dayStatus);
+        Map<String, Object> index = new HashMap<>();
+        index.put("statuses", entry);
+
+        if (email != null) {
+            // FieldPath, not "userStatus." + email: the dots in an email would split the path.
+            // update() also fails the whole transaction if the task was deleted meanwhile.
+            transaction.update(db.collection("tasks").document(task.getId()),
+                    FieldPath.of("userStatus", email), dayStatus.getStatus(),
+                    FieldPath.of("userCompletedDate", email), dayStatus.getCompletedAt(),
+                    FieldPath.of("userAiCount", email), dayStatus.getAiCountValue());
+        }
+        transaction.set(statusRef(task.getId(), dateKey), dayStatus);
+        transaction.set(db.collection("dayIndex").document(dateKey), index, SetOptions.merge());
+
+        String before = DailyStats.bucketOf(task, previous);
+        String after = DailyStats.bucketOf(task, dayStatus);
+        if (after != null && !after.equals(before)) {
+            transaction.set(db.collection("stats").document(dateKey),
+                    counterDeltas(task, before, after), SetOptions.merge());
+        }
+    }
+
+    private DocumentReference statusRef(String taskId, String dateKey) {
+        return db.collection("tasks").document(taskId)
+                .collection("dailyStatus").document(dateKey);
+    }
+
+    /**
+     * Nested increments for set(merge): map keys are literal, so emails need no escaping.
+     */
+    private static Map<String, Object> counterDeltas(Task task, @Nullable String before,
+                                                     String after) {
+        Map<String, Object> deltas = bucketDeltas("", before, after);
+        if (DailyStats.isPermanent(task)) {
+            deltas.putAll(bucketDeltas("permanent", before, after));
+            return deltas;
+        }
+        List<String> assignedTo = task.getAssignedTo();
+        if (assignedTo != null && !assignedTo.isEmpty()) {
+            Map<String, Object> users = new HashMap<>();
+            for (String email : assignedTo) {
+                users.put(email, bucketDeltas("", before, after));
+            }
+            deltas.put("users", users);
+        }
+        return deltas;
+    }
+
+    private static Map<String, Object> bucketDeltas(String prefix, @Nullable String before,
+                                                    String after) {
+        Map<String, Object> deltas = new HashMap<>();
+        deltas.put(fieldName(prefix, after), FieldValue.increment(1));
+        if (before != null) {
+            deltas.put(fieldName(prefix, before), FieldValue.increment(-1));
+        }
+        return deltas;
+    }
+
+    // "done" or, with a prefix, "permanentDone"
+    private static String fieldName(String prefix, String bucket) {
+        if (prefix.isEmpty()) {
+            return bucket;
+        }
+        return prefix + Character.toUpperCase(bucket.charAt(0)) + bucket.substring(1);
+    }
+}
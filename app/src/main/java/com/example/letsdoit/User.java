@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class User {
@@ -13,6 +14,9 @@ public class User {
     private String displayName;
     private String password; // NEW FIELD for password storage
     private String mobileNumber; // ADDED FIELD
+    // Lowercased displayName and email; the member directory orders and prefix-searches on them
+    private String searchName;
+    private String searchEmail;
 
     public User() {
         // Required empty constructor for Firestore
@@ -23,6 +27,8 @@ public class User {
         this.email = email;
         this.role = role;
         this.displayName = displayName;
+        this.searchName = searchNameOf(displayName);
+        this.searchEmail = searchEmailOf(email);
         this.password = password;
         this.mobileNumber = ""; // Initialize default
     }
@@ -32,6 +38,8 @@ public class User {
         this.email = email;
         this.role = role;
         this.displayName = displayName;
+        this.searchName = searchNameOf(displayName);
+        this.searchEmail = searchEmailOf(email);
         this.password = password;
         this.mobileNumber = mobileNumber;
     }
@@ -86,4 +94,35 @@ public class User {
     public void setMobileNumber(String mobileNumber) {
         this.mobileNumber = mobileNumber;
     }
-}
\ No newline at end of file
+
+    public String getSearchName() {
+        return searchName;
+    }
+
+    public void setSearchName(String searchName) {
+        this.searchName = searchName;
+    }
+
+    public String getSearchEmail() {
+        return searchEmail;
+    }
+
+    public void setSearchEmail(String searchEmail) {
+        this.searchEmail = searchEmail;
+    }
+
+    /**
+     * Value of the searchName field for a display name; queries lowercase their prefix
+     * the same way.
+     */
+    public static String searchNameOf(String displayName) {
+        return displayName != null ? displayName.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Value of the searchEmail field for an email, lowercased like searchNameOf.
+     */
+    public static String searchEmailOf(String email) {
+        return searchNameOf(email);
+    }
+}
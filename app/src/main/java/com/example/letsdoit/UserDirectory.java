@@ -0,0 +1,234 @@
+// src/main/java/com/example/letsdoit/UserDirectory.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide email -> display name directory of the "users" and "admins" collections,
+ * shared by every screen that shows or assigns people. Two snapshot listeners keep it
+ * current, so the collections are downloaded once per process instead of once per
+ * screen. With a LocalStore attached it starts from the mirrored copy and writes every
+ * complete server state back to it.
+ * All calls and callbacks happen on the main thread.
+ */
+public class UserDirectory {
+
+    private static final String TAG = "UserDirectory";
+
+    public interface DirectoryListener {
+        void onDirectoryUpdated(UserDirectory directory);
+
+        default void onDirectoryError(Exception e) {
+            Log.e(TAG, "User directory failed", e);
+        }
+    }
+
+    private static UserDirectory instance;
+
+    private final List<DirectoryListener> listeners = new ArrayList<>();
+    private final List<ListenerRegistration> registrations = new ArrayList<>();
+    private List<User> members = Collections.emptyList();
+    private List<User> admins = Collections.emptyList();
+    private Map<String, String> displayNames = Collections.emptyMap();
+    private boolean membersLoaded = false;
+    private boolean adminsLoaded = false;
+    private boolean loaded = false;
+    @Nullable
+    private LocalSync localSync;
+
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory();
+        }
+        return instance;
+    }
+
+    private UserDirectory() {
+    }
+
+    /**
+     * Enables the on-device copy; called once from MainActivity before any listener.
+     */
+    public void attachLocalStore(Context context) {
+        if (localSync == null) {
+            localSync = LocalSync.getInstance(context);
+        }
+    }
+
+    /**
+     * Registers a listener and starts the snapshot listeners if needed. When the
+     * directory is already loaded the listener is called immediately.
+     */
+    public void addListener(DirectoryListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        startListening();
+        if (loaded) {
+            listener.onDirectoryUpdated(this);
+        }
+    }
+
+    public void removeListener(DirectoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Immutable list of the "users" documents, i.e. the people tasks are assigned to.
+     */
+    public List<User> getMembers() {
+        return members;
+    }
+
+    /**
+     * Immutable email -> display name map of members and admins.
+     */
+    public Map<String, String> getDisplayNames() {
+        return displayNames;
+    }
+
+    /**
+     * Drops the directory and its listeners, e.g. on logout.
+     */
+    public void clear() {
+        stopListening();
+        listeners.clear();
+        members = Collections.emptyList();
+        admins = Collections.emptyList();
+        displayNames = Collections.emptyMap();
+        loaded = false;
+    }
+
+    private void startListening() {
+        if (!registrations.isEmpty()) {
+            return;
+        }
+        if (!loaded && localSync != null) {
+            seedFromLocal();
+        }
+        membersLoaded = false;
+        adminsLoaded = false;
+        FirebaseFirestore db = FirestoreProvider.get();
+        registrations.add(db.collection("users").addSnapshotListener((snapshot, e) -> {
+            if (e != null) {
+                onError(e);
+                return;
+            }
+            if (snapshot != null) {
+                members = parse(snapshot);
+                membersLoaded = true;
+                onServerUpdate();
+            }
+        }));
+        registrations.add(db.collection("admins").addSnapshotListener((snapshot, e) -> {
+            if (e != null) {
+                onError(e);
+                return;
+            }
+            if (snapshot != null) {
+                admins = parse(snapshot);
+                adminsLoaded = true;
+                onServerUpdate();
+            }
+        }));
+    }
+
+    private void stopListening() {
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+        registrations.clear();
+    }
+
+    /**
+     * Mirrored users let screens show names before the listeners connect. Skipped if the
+     * server answered first or nothing is mirrored yet (first run).
+     */
+    private void seedFromLocal() {
+        localSync.loadUsers(cached -> {
+            if (membersLoaded || adminsLoaded || registrations.isEmpty() || cached.isEmpty()) {
+                return;
+            }
+            List<User> cachedMembers = new ArrayList<>();
+            List<User> cachedAdmins = new ArrayList<>();
+            for (User user : cached) {
+                if ("admin".equalsIgnoreCase(user.getRole())) {
+                    cachedAdmins.add(user);
+                } else {
+                    cachedMembers.add(user);
+                }
+            }
+            members = Collections.unmodifiableList(cachedMembers);
+            admins = Collections.unmodifiableList(cachedAdmins);
+            publish();
+        });
+    }
+
+    private void onServerUpdate() {
+        // Names of the other collection may still be the mirrored ones; publish anyway
+        publish();
+        if (membersLoaded && adminsLoaded && localSync != null) {
+            // Only a complete state may replace the mirrored one
+            List<User> all = new ArrayList<>(members);
+            all.addAll(admins);
+            localSync.saveUsers(all);
+        }
+    }
+
+    private void onError(Exception e) {
+        // The listeners are dead after an error; the next addListener restarts them
+        stopListening();
+        for (DirectoryListener listener : new ArrayList<>(listeners)) {
+            listener.onDirectoryError(e);
+        }
+    }
+
+    private void publish() {
+        Map<String, String> names = new HashMap<>();
+        for (List<User> users : Arrays.asList(members, admins)) {
+            for (User user : users) {
+                if (user.getEmail() != null && user.getDisplayName() != null) {
+                    names.put(user.getEmail(), user.getDisplayName());
+                }
+            }
+        }
+        displayNames = Collections.unmodifiableMap(names);
+        loaded = true;
+        for (DirectoryListener listener : new ArrayList<>(listeners)) {
+            listener.onDirectoryUpdated(this);
+        }
+    }
+
+    private static List<User> parse(QuerySnapshot snapshot) {
+        List<User> users = new ArrayList<>();
+        for (QueryDocumentSnapshot document : snapshot) {
+            try {
+                User user = document.toObject(User.class);
+                user.setDocumentId(document.getId());
+                users.add(user);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error parsing user: " + document.getId(), e);
+            }
+        }
+        return Collections.unmodifiableList(users);
+    }
+}
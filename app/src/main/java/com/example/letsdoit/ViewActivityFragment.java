@@ -27,32 +27,35 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.cardview.widget.CardView;
 
+import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import com.google.android.gms.tasks.Tasks;
-import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class ViewActivityFragment extends Fragment
-        implements TaskAdapter.TaskActionListener, CalendarDialogFragment.OnDateSelectedListener {
+        implements TaskAdapter.TaskActionListener, CalendarDialogFragment.OnDateSelectedListener,
+        TaskRepository.TaskListener {
 
     private RecyclerView recyclerView;
     private TaskAdapter taskAdapter;
     private List<Task> taskList;
     private List<Task> filteredTaskList;
     private FirebaseFirestore db;
+    private TaskRepository taskRepository;
+    private boolean listeningToTasks = false;
+    // Additional tasks of a past selected date that ended before TaskRepository's window
+    private List<Task> endedTasks = Collections.emptyList();
     private ProgressBar progressBar;
     private LinearLayout llEmptyState;
     private TextView tvEmptyState;
@@ -68,23 +71,42 @@ public class ViewActivityFragment extends Fragment
     private String loggedInUserRole;
     private String currentFilter = "done"; // Default: show Done first
 
-    // Map to store user email to display name
+    // email -> display name, kept current by the shared UserDirectory
     private Map<String, String> userDisplayNameMap = new HashMap<>();
+    private UserDirectory userDirectory;
+    private final UserDirectory.DirectoryListener directoryListener = this::onDirectoryUpdated;
+    // Rebuilt on every task snapshot; queried by the search matcher on its background thread
+    private volatile TaskSearchIndex searchIndex =
+            new TaskSearchIndex(Collections.emptyList(), Collections.emptyMap());
+    private SearchPipeline<Task> searchPipeline;
+
+    // Day statuses for the selected date, resolved in one batch per filter pass
+    private DayStatusResolver dayStatusResolver;
+    private TaskStatusWriter taskStatusWriter;
+    private LocalSync localSync;
+    private Map<String, TaskDayStatus> dayStatusMap = new HashMap<>();
+    private int filterGeneration = 0;
+    private int appliedGeneration = 0;
+
+    // Paging of the sorted search results: statuses are resolved and rows built one page
+    // at a time, the next page when the list is scrolled within PREFETCH_DISTANCE rows
+    // of its end. A page only resolves the tasks whose status isn't known for the date yet
+    private static final int PAGE_SIZE = 25;
+    private static final int PREFETCH_DISTANCE = 8;
+    private List<Task> pagedTasks = Collections.emptyList();
+    private int builtCount = 0;
+    // Rows built by the previous pass; a refresh builds at least as many up front so the
+    // list doesn't shrink under the user
+    private int retainedCount = 0;
+    // Date dayStatusMap holds, and the tasks whose status the server has answered for it
+    @Nullable
+    private String statusDateKey;
+    private final Set<String> resolvedTaskIds = new HashSet<>();
+    private boolean pageLoading = false;
 
     // Stores the selected date in milliseconds (or -1 for 'Today')
     private long selectedDateMillis = -1;
 
-    private final SimpleDateFormat dateFormat =
-            new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-    private final SimpleDateFormat dateIndicatorFormat =
-            new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-    private final SimpleDateFormat dayOfWeekFormat =
-            new SimpleDateFormat("EEEE", Locale.US);
-
-    // For per-day storage docs: yyyy-MM-dd
-    private final SimpleDateFormat storageDateKeyFormat =
-            new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-
     private static final String TAG = "ViewActivityFragment";
     public static final String EXTRA_TASK_ID = "extra_task_id";
 
@@ -139,14 +161,33 @@ public class ViewActivityFragment extends Fragment
         etSearchQuery = view.findViewById(R.id.et_search_query);
         final TextInputLayout tilSearch = view.findViewById(R.id.til_search);
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
+        taskRepository = TaskRepository.getInstance();
+        userDirectory = UserDirectory.getInstance();
+        dayStatusResolver = new DayStatusResolver(db);
+        taskStatusWriter = new TaskStatusWriter(db);
+        localSync = LocalSync.getInstance(requireContext());
         taskList = new ArrayList<>();
         filteredTaskList = new ArrayList<>();
-
-        taskAdapter = new TaskAdapter(filteredTaskList, getContext(), this,
+        searchPipeline = new SearchPipeline<>(SearchPipeline.DEFAULT_DEBOUNCE_MILLIS,
+                () -> applyDateFilter(taskList),
+                (dateFilteredList, query) -> {
+                    List<Task> searchFilteredList = applySearchFilter(dateFilteredList, query);
+                    Collections.sort(searchFilteredList, new PriorityComparator());
+                    return searchFilteredList;
+                },
+                (query, searchFilteredList) -> onSearchResults(searchFilteredList));
+
+        taskAdapter = new TaskAdapter(getContext(), this,
                 loggedInUserRole, loggedInUserEmail);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerView.setAdapter(taskAdapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                maybeLoadNextPage();
+            }
+        });
 
         setupFilterListeners();
         setupCalendar();
@@ -165,6 +206,8 @@ public class ViewActivityFragment extends Fragment
             }
         }
 
+        // Names load in parallel with the tasks; they only feed the rows and the search
+        userDirectory.addListener(directoryListener);
         loadTasks();
         return view;
     }
@@ -199,7 +242,9 @@ public class ViewActivityFragment extends Fragment
             public void onTextChanged(CharSequence s, int start,
                                       int before, int count) {
                 currentSearchQuery = s.toString().trim().toLowerCase();
-                applyFilter();
+                // Debounced: a burst of keystrokes results in a single filter pass
+                ++filterGeneration;
+                searchPipeline.submit(currentSearchQuery);
             }
 
             @Override
@@ -209,10 +254,7 @@ public class ViewActivityFragment extends Fragment
 
     @Override
     public void onDateSelected(long dateInMillis, String formattedDate) {
-        long todayStart = getDayStartMillis(System.currentTimeMillis());
-        long selectedDayStart = getDayStartMillis(dateInMillis);
-
-        if (selectedDayStart == todayStart) {
+        if (DateKeys.epochDayOf(dateInMillis) == DateKeys.epochDayOf(System.currentTimeMillis())) {
             selectedDateMillis = -1;
         } else {
             selectedDateMillis = dateInMillis;
@@ -228,7 +270,7 @@ public class ViewActivityFragment extends Fragment
             tvDateIndicator.setText("Today");
         } else {
             String formattedDate =
-                    dateIndicatorFormat.format(new Date(selectedDateMillis));
+                    DateKeys.formatDisplayDate(selectedDateMillis);
             tvDateIndicator.setText(formattedDate);
         }
     }
@@ -244,159 +286,183 @@ public class ViewActivityFragment extends Fragment
         });
     }
 
-    private long getDayStartMillis(long dateMillis) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(dateMillis);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTimeInMillis();
-    }
-
     /**
-     * Synchronous status lookup: read /tasks/{taskId}/dailyStatus/{yyyy-MM-dd}
-     * and return "Completed" or "Pending" for the selected day.
+     * Status for the selected day, taken from the last resolved dailyStatus batch.
      */
-    private String getTaskStatusOnDate(Task task, long filterDateMillis) {
-        long dayStart = getDayStartMillis(filterDateMillis);
-        String dateKey = storageDateKeyFormat.format(new Date(dayStart));
-
-        String statusForDay = "Pending";
-
-        try {
-            com.google.android.gms.tasks.Task<DocumentSnapshot> t =
-                    FirebaseFirestore.getInstance()
-                            .collection("tasks")
-                            .document(task.getId())
-                            .collection("dailyStatus")
-                            .document(dateKey)
-                            .get();
-
-            DocumentSnapshot snapshot = Tasks.await(t);
-
-            if (snapshot != null && snapshot.exists()) {
-                TaskDayStatus dayStatus = snapshot.toObject(TaskDayStatus.class);
-                if (dayStatus != null) {
-                    String s = dayStatus.getStatus();
-                    String ai = dayStatus.getAiCountValue();
-
-                    if ("Completed".equalsIgnoreCase(s)) {
-                        if (task.isRequireAiCount() && (ai == null || ai.isEmpty())) {
-                            statusForDay = "Pending";
-                        } else {
-                            statusForDay = "Completed";
-                        }
-                    } else {
-                        statusForDay = "Pending";
-                    }
-                }
-            } else {
-                statusForDay = "Pending";
-            }
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error reading dailyStatus synchronously: " + e.getMessage());
-            statusForDay = "Pending";
-        }
-
-        return statusForDay;
+    private String getTaskStatusOnDate(Task task) {
+        return DayStatusResolver.getStatusForDay(task, dayStatusMap.get(task.getId()));
     }
 
-    private void applyFilter() {
+    private String getSelectedDateKey() {
         long filterDateMillis =
                 selectedDateMillis == -1 ? System.currentTimeMillis() : selectedDateMillis;
+        return DateKeys.dateKeyOf(filterDateMillis);
+    }
 
-        // 1. Date filtering
-        List<Task> dateFilteredList = applyDateFilter(taskList);
-
-        // 2. Search filtering
-        List<Task> searchFilteredList =
-                applySearchFilter(dateFilteredList, currentSearchQuery);
+    private void applyFilter() {
+        // Counts as in flight until its statuses are resolved (see onTasksChanged)
+        ++filterGeneration;
+        // 1-3. Date filter on the main thread, then search and sort in the background
+        searchPipeline.submitNow(currentSearchQuery);
+    }
 
-        // 3. Sort
-        if (!searchFilteredList.isEmpty()) {
-            Collections.sort(searchFilteredList, new PriorityComparator());
+    private void onSearchResults(List<Task> searchFilteredList) {
+        // 4. Resolve day statuses page by page, starting with the first PAGE_SIZE rows
+        pagedTasks = searchFilteredList;
+        retainedCount = Math.max(retainedCount, builtCount);
+        builtCount = 0;
+        pageLoading = false;
+        String dateKey = getSelectedDateKey();
+        if (!dateKey.equals(statusDateKey)) {
+            statusDateKey = dateKey;
+            dayStatusMap = new HashMap<>();
+            resolvedTaskIds.clear();
         }
+        loadNextPage();
+    }
 
-        filteredTaskList.clear();
-        taskAdapter.setUserDisplayNameMap(userDisplayNameMap);
+    private boolean hasMorePages() {
+        return builtCount < pagedTasks.size();
+    }
 
-        // 4. Build display list and apply status filter
-        for (Task originalTask : searchFilteredList) {
-            // CRITICAL FIX: Get the status FIRST before creating display task
-            String statusForDay = getTaskStatusOnDate(originalTask, filterDateMillis);
-            String statusLowerCase = statusForDay.toLowerCase(Locale.US);
-
-            // Apply filter check BEFORE creating display task
-            boolean shouldInclude = false;
-            if (currentFilter.equals("done") && statusLowerCase.equals("completed")) {
-                shouldInclude = true;
-            } else if (currentFilter.equals("not done") && statusLowerCase.equals("pending")) {
-                shouldInclude = true;
+    /**
+     * Resolves the statuses of the next page that are not known for the date yet, in one
+     * async batch, then builds its rows; results of stale passes are dropped. Called with
+     * the mirrored statuses first, then again with the server's.
+     */
+    private void loadNextPage() {
+        if (pageLoading || !hasMorePages()) {
+            return;
+        }
+        final int generation = filterGeneration;
+        int pageSize = builtCount == 0 ? Math.max(PAGE_SIZE, retainedCount) : PAGE_SIZE;
+        final int pageEnd = Math.min(builtCount + pageSize, pagedTasks.size());
+        List<Task> unresolved = new ArrayList<>();
+        for (Task task : pagedTasks.subList(builtCount, pageEnd)) {
+            if (!resolvedTaskIds.contains(task.getId())) {
+                unresolved.add(task);
             }
+        }
+        if (unresolved.isEmpty()) {
+            appliedGeneration = generation;
+            builtCount = pageEnd;
+            retainedCount = 0;
+            buildDisplayList(pagedTasks.subList(0, pageEnd));
+            return;
+        }
 
-            // Only create and add task if it passes the filter
-            if (shouldInclude) {
-                Task taskForDisplay = new Task();
-                taskForDisplay.setId(originalTask.getId());
-                taskForDisplay.setTitle(originalTask.getTitle());
-                taskForDisplay.setDescription(originalTask.getDescription());
-                taskForDisplay.setPriority(originalTask.getPriority());
-                taskForDisplay.setRemarks(originalTask.getRemarks());
-                taskForDisplay.setAssignedTo(originalTask.getAssignedTo());
-                taskForDisplay.setStartDate(originalTask.getStartDate());
-                taskForDisplay.setEndDate(originalTask.getEndDate());
-                taskForDisplay.setRequireAiCount(originalTask.isRequireAiCount());
-                taskForDisplay.setTimestamp(originalTask.getTimestamp());
-                taskForDisplay.setTaskType(originalTask.getTaskType());
-                taskForDisplay.setSelectedDays(originalTask.getSelectedDays());
-                taskForDisplay.setUserStatus(originalTask.getUserStatus());
-                taskForDisplay.setUserAiCount(originalTask.getUserAiCount());
-                taskForDisplay.setUserCompletedDate(originalTask.getUserCompletedDate());
-
-                // Set the calculated status (THIS IS CRITICAL for TaskAdapter)
-                taskForDisplay.setStatus(statusForDay);
-
-                // Also set AI count and completion date if completed
-                if (statusLowerCase.equals("completed")) {
-                    // Read the dailyStatus doc to get AI count and completion time
-                    try {
-                        long dayStart = getDayStartMillis(filterDateMillis);
-                        String dateKey = storageDateKeyFormat.format(new Date(dayStart));
-
-                        com.google.android.gms.tasks.Task<DocumentSnapshot> t =
-                                FirebaseFirestore.getInstance()
-                                        .collection("tasks")
-                                        .document(originalTask.getId())
-                                        .collection("dailyStatus")
-                                        .document(dateKey)
-                                        .get();
-
-                        DocumentSnapshot snapshot = Tasks.await(t);
-                        if (snapshot != null && snapshot.exists()) {
-                            TaskDayStatus dayStatus = snapshot.toObject(TaskDayStatus.class);
-                            if (dayStatus != null) {
-                                taskForDisplay.setAiCountValue(dayStatus.getAiCountValue());
-                                taskForDisplay.setCompletedDateMillis(dayStatus.getCompletedAt());
-                            }
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error reading dailyStatus for display: " + e.getMessage());
-                    }
-                } else {
-                    taskForDisplay.setAiCountValue("");
-                    taskForDisplay.setCompletedDateMillis(0L);
+        pageLoading = true;
+        dayStatusResolver.resolveWithLocal(localSync, unresolved, statusDateKey, (statuses, fromServer) -> {
+            if (generation != filterGeneration || !isAdded()) {
+                return;
+            }
+            appliedGeneration = generation;
+            dayStatusMap.putAll(statuses);
+            if (fromServer) {
+                for (Task task : unresolved) {
+                    resolvedTaskIds.add(task.getId());
                 }
+                builtCount = pageEnd;
+                retainedCount = 0;
+                pageLoading = false;
+            }
+            buildDisplayList(pagedTasks.subList(0, pageEnd));
+        });
+    }
+
+    private void maybeLoadNextPage() {
+        if (pageLoading || !hasMorePages()) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        // Also true while the rows shown don't fill the screen (or none passed the filter)
+        if (layoutManager != null && layoutManager.findLastVisibleItemPosition()
+                >= filteredTaskList.size() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
+
+    private void buildDisplayList(List<Task> resolvedTasks) {
+        filteredTaskList.clear();
+        taskAdapter.setUserDisplayNameMap(userDisplayNameMap);
 
+        // 5. Build display list and apply status filter
+        for (Task originalTask : resolvedTasks) {
+            Task taskForDisplay = createDisplayTask(originalTask);
+            if (taskForDisplay != null) {
                 filteredTaskList.add(taskForDisplay);
             }
         }
 
-        taskAdapter.notifyDataSetChanged();
+        progressBar.setVisibility(View.GONE);
+        submitDisplayList();
+    }
+
+    /**
+     * Hands a snapshot of filteredTaskList to the adapter, which diffs it off the main
+     * thread and only rebinds changed rows. Once the rows are laid out, the next page is
+     * prefetched if they end within PREFETCH_DISTANCE of the screen.
+     */
+    private void submitDisplayList() {
+        taskAdapter.submitList(new ArrayList<>(filteredTaskList),
+                () -> recyclerView.post(this::maybeLoadNextPage));
         updateEmptyState();
     }
 
+    /**
+     * Display copy of a task carrying its status for the selected day, or null when the
+     * Done/Not Done filter hides it.
+     */
+    @Nullable
+    private Task createDisplayTask(Task originalTask) {
+        TaskDayStatus dayStatus = dayStatusMap.get(originalTask.getId());
+        String statusForDay = DayStatusResolver.getStatusForDay(originalTask, dayStatus);
+        String statusLowerCase = statusForDay.toLowerCase(Locale.US);
+
+        // Apply filter check BEFORE creating display task
+        boolean shouldInclude = false;
+        if (currentFilter.equals("done") && statusLowerCase.equals("completed")) {
+            shouldInclude = true;
+        } else if (currentFilter.equals("not done") && statusLowerCase.equals("pending")) {
+            shouldInclude = true;
+        }
+
+        if (!shouldInclude) {
+            return null;
+        }
+
+        Task taskForDisplay = new Task();
+        taskForDisplay.setId(originalTask.getId());
+        taskForDisplay.setTitle(originalTask.getTitle());
+        taskForDisplay.setDescription(originalTask.getDescription());
+        taskForDisplay.setPriority(originalTask.getPriority());
+        taskForDisplay.setRemarks(originalTask.getRemarks());
+        taskForDisplay.setAssignedTo(originalTask.getAssignedTo());
+        taskForDisplay.setStartDate(originalTask.getStartDate());
+        taskForDisplay.setEndDate(originalTask.getEndDate());
+        taskForDisplay.setRequireAiCount(originalTask.isRequireAiCount());
+        taskForDisplay.setTimestamp(originalTask.getTimestamp());
+        taskForDisplay.setTaskType(originalTask.getTaskType());
+        taskForDisplay.setSelectedDays(originalTask.getSelectedDays());
+        taskForDisplay.setUserStatus(originalTask.getUserStatus());
+        taskForDisplay.setUserAiCount(originalTask.getUserAiCount());
+        taskForDisplay.setUserCompletedDate(originalTask.getUserCompletedDate());
+
+        // Set the calculated status (THIS IS CRITICAL for TaskAdapter)
+        taskForDisplay.setStatus(statusForDay);
+
+        // AI count and completion time come from the same dailyStatus doc
+        if (statusLowerCase.equals("completed")) {
+            taskForDisplay.setAiCountValue(dayStatus.getAiCountValue());
+            taskForDisplay.setCompletedDateMillis(dayStatus.getCompletedAt());
+        } else {
+            taskForDisplay.setAiCountValue("");
+            taskForDisplay.setCompletedDateMillis(0L);
+        }
+
+        return taskForDisplay;
+    }
+
     private static class PriorityComparator implements Comparator<Task> {
         private int getPriorityValue(String priority) {
             if (priority == null) return 3;
@@ -423,93 +489,33 @@ public class ViewActivityFragment extends Fragment
         }
     }
 
+    /**
+     * Also runs on the search thread; the index is immutable, so no locking is needed.
+     */
     private List<Task> applySearchFilter(List<Task> dateFilteredList, String query) {
-        if (query.isEmpty()) {
-            return dateFilteredList;
-        }
-
-        List<Task> searchFilteredList = new ArrayList<>();
-        for (Task task : dateFilteredList) {
-            if (task.getTitle() != null &&
-                    task.getTitle().toLowerCase(Locale.US).contains(query)) {
-                searchFilteredList.add(task);
-                continue;
-            }
-
-            List<String> assignedToEmails = task.getAssignedTo();
-            if (assignedToEmails != null) {
-                for (String email : assignedToEmails) {
-                    String displayName = userDisplayNameMap.get(email);
-                    if (displayName != null &&
-                            displayName.toLowerCase(Locale.US).contains(query)) {
-                        searchFilteredList.add(task);
-                        break;
-                    }
-                }
-            }
-        }
-        return searchFilteredList;
+        return searchIndex.filter(dateFilteredList, query);
     }
 
     private List<Task> applyDateFilter(List<Task> unfilteredList) {
         long filterDateMillis =
                 selectedDateMillis == -1 ? System.currentTimeMillis() : selectedDateMillis;
-        long filterDayStart = getDayStartMillis(filterDateMillis);
-        String filterDayOfWeek =
-                dayOfWeekFormat.format(new Date(filterDateMillis)).substring(0, 3);
+        long filterEpochDay = TaskSchedule.epochDayOf(filterDateMillis);
 
         List<Task> dateFilteredList = new ArrayList<>();
-
         for (Task task : unfilteredList) {
-            String taskType =
-                    task.getTaskType() != null
-                            ? task.getTaskType().toLowerCase(Locale.US)
-                            : "permanent";
-
-            if (taskType.equals("permanent")) {
-                boolean isDayActive = false;
-                List<String> selectedDays = task.getSelectedDays();
-                if (selectedDays != null) {
-                    for (String day : selectedDays) {
-                        if (day.equalsIgnoreCase(filterDayOfWeek)) {
-                            isDayActive = true;
-                            break;
-                        }
-                    }
-                }
-                if (isDayActive) {
-                    dateFilteredList.add(task);
-                }
-
-            } else if (taskType.equals("additional")) {
-                try {
-                    String startDateStr = task.getStartDate();
-                    String endDateStr = task.getEndDate();
-                    if (startDateStr == null || startDateStr.isEmpty() ||
-                            endDateStr == null || endDateStr.isEmpty()) {
-                        continue;
-                    }
-
-                    long startDateMillis = dateFormat.parse(startDateStr).getTime();
-                    long endDateMillis = dateFormat.parse(endDateStr).getTime();
-                    long startDayStart = getDayStartMillis(startDateMillis);
-                    long endDayStart = getDayStartMillis(endDateMillis);
-
-                    if (filterDayStart >= startDayStart &&
-                            filterDayStart <= endDayStart) {
-                        dateFilteredList.add(task);
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG,
-                            "Error parsing task dates for filtering: " + e.getMessage());
-                }
+            if (task.getSchedule().isActiveOn(filterEpochDay)) {
+                dateFilteredList.add(task);
             }
         }
         return dateFilteredList;
     }
 
     private void updateEmptyState() {
-        if (filteredTaskList.isEmpty()) {
+        if (filteredTaskList.isEmpty() && hasMorePages()) {
+            // Nothing matched yet, but later pages still have to be resolved
+            llEmptyState.setVisibility(View.GONE);
+            progressBar.setVisibility(View.VISIBLE);
+        } else if (filteredTaskList.isEmpty()) {
             String filterName;
             if (currentFilter.equals("done")) {
                 filterName = "Done";
@@ -528,132 +534,205 @@ public class ViewActivityFragment extends Fragment
     }
 
     private void loadTasks() {
+        // An explicit load re-reads the day's statuses
+        statusDateKey = null;
         progressBar.setVisibility(View.VISIBLE);
         llEmptyState.setVisibility(View.GONE);
         recyclerView.setVisibility(View.GONE);
-        loadAllUsers();
+        startLoadingTasks();
     }
 
-    private void loadAllUsers() {
-        userDisplayNameMap.clear();
-        db.collection("users")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        User user = document.toObject(User.class);
-                        if (user.getEmail() != null &&
-                                user.getDisplayName() != null) {
-                            userDisplayNameMap.put(user.getEmail(), user.getDisplayName());
-                        }
-                    }
-                    loadAdminsForMap();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load user list for map: " + e.getMessage());
-                    loadAdminsForMap();
-                });
+    /**
+     * Fresh names only need a new search index and a redraw of the rows already built.
+     */
+    private void onDirectoryUpdated(UserDirectory directory) {
+        if (!isAdded()) return;
+        userDisplayNameMap = directory.getDisplayNames();
+        taskAdapter.setUserDisplayNameMap(userDisplayNameMap);
+        if (listeningToTasks && taskRepository.isLoaded()) {
+            rebuildSearchIndex();
+            applyFilter();
+        }
     }
 
-    private void loadAdminsForMap() {
-        db.collection("admins")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        User user = document.toObject(User.class);
-                        if (user.getEmail() != null &&
-                                user.getDisplayName() != null) {
-                            userDisplayNameMap.put(user.getEmail(), user.getDisplayName());
+    private void startLoadingTasks() {
+        loadEndedTasks();
+        if (!listeningToTasks) {
+            // Delivers the cached tasks right away when the repository is already loaded
+            listeningToTasks = true;
+            taskRepository.addListener(this);
+        } else if (taskRepository.isLoaded()) {
+            onTasksUpdated(taskRepository.getTasks());
+        }
+    }
+
+    /**
+     * Past dates may need Additional tasks that have already ended; TaskRepository only
+     * listens to current ones, so those come from one range query per date change.
+     */
+    private void loadEndedTasks() {
+        if (selectedDateMillis == -1) {
+            endedTasks = Collections.emptyList();
+            return;
+        }
+        final long requestedDateMillis = selectedDateMillis;
+        taskRepository.fetchEndedTasks(loggedInUserEmail, loggedInUserRole,
+                DateKeys.epochDayOf(selectedDateMillis), new TaskRepository.TaskListener() {
+                    @Override
+                    public void onTasksUpdated(List<Task> ended) {
+                        if (!isAdded() || requestedDateMillis != selectedDateMillis) return;
+                        boolean changed = !ended.isEmpty() || !endedTasks.isEmpty();
+                        endedTasks = ended;
+                        if (changed && taskRepository.isLoaded()) {
+                            ViewActivityFragment.this.onTasksUpdated(taskRepository.getTasks());
                         }
                     }
-                    startLoadingTasks();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load admin list for map: " + e.getMessage());
-                    startLoadingTasks();
+
+                    @Override
+                    public void onTasksError(Exception e) {
+                        Log.e(TAG, "Error loading ended tasks", e);
+                    }
                 });
     }
 
-    private void startLoadingTasks() {
-        if ("admin".equals(loggedInUserRole)) {
-            loadAllTasks();
-        } else {
-            loadUserTasks();
+    @Override
+    public void onTasksUpdated(List<Task> tasks) {
+        if (!isAdded()) return;
+        taskList.clear();
+        boolean isAdmin = "admin".equals(loggedInUserRole);
+        for (Task task : tasks) {
+            if (isAdmin || isTaskVisibleToUser(task)) {
+                taskList.add(task);
+            }
         }
+        for (Task task : endedTasks) {
+            if ((isAdmin || isTaskVisibleToUser(task)) && indexOfTask(taskList, task.getId()) < 0) {
+                taskList.add(task);
+            }
+        }
+        rebuildSearchIndex();
+        applyFilter();
+        recyclerView.setVisibility(View.VISIBLE);
     }
 
-    private void loadAllTasks() {
-        db.collection("tasks")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    taskList.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            Task task = document.toObject(Task.class);
-                            task.setId(document.getId());
-                            taskList.add(task);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing task: " + document.getId(), e);
-                        }
-                    }
-                    applyFilter();
-                    progressBar.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading tasks for admin", e);
-                    progressBar.setVisibility(View.GONE);
-                    tvEmptyState.setText("Error loading tasks: " + e.getMessage());
-                    llEmptyState.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.GONE);
-                });
+    /**
+     * Applies only the changed tasks: each one is re-filtered and its row patched in
+     * place, so an edit by another admin costs one document read and one rebind.
+     */
+    @Override
+    public void onTasksChanged(List<Task> tasks, List<TaskRepository.TaskChange> changes) {
+        if (!isAdded()) return;
+        boolean isAdmin = "admin".equals(loggedInUserRole);
+        for (TaskRepository.TaskChange change : changes) {
+            Task task = change.getTask();
+            // Its day status may have changed with it; the next pass reads it again
+            resolvedTaskIds.remove(task.getId());
+            int index = indexOfTask(taskList, task.getId());
+            boolean visible = change.getType() != DocumentChange.Type.REMOVED &&
+                    (isAdmin || isTaskVisibleToUser(task));
+            if (!visible) {
+                if (index >= 0) taskList.remove(index);
+            } else if (index >= 0) {
+                taskList.set(index, task);
+            } else {
+                taskList.add(task);
+            }
+        }
+
+        rebuildSearchIndex();
+
+        if (appliedGeneration != filterGeneration || hasMorePages()) {
+            // A full pass is still resolving statuses from the old list, or rows of
+            // unresolved pages would be placed with unknown statuses; redo it
+            applyFilter();
+            return;
+        }
+        for (TaskRepository.TaskChange change : changes) {
+            updateTaskRow(change.getTask().getId());
+        }
+        submitDisplayList();
     }
 
-    private void loadUserTasks() {
-        db.collection("tasks")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    taskList.clear();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            Task task = document.toObject(Task.class);
-                            task.setId(document.getId());
-
-                            boolean shouldDisplay = false;
-                            String taskType =
-                                    task.getTaskType() != null
-                                            ? task.getTaskType().toLowerCase(Locale.US)
-                                            : "permanent";
-                            List<String> assignedTo = task.getAssignedTo();
-
-                            if (taskType.equals("permanent")) {
-                                shouldDisplay = true;
-                            } else if (taskType.equals("additional")) {
-                                if (assignedTo != null &&
-                                        assignedTo.contains(loggedInUserEmail)) {
-                                    shouldDisplay = true;
-                                }
-                            }
-
-                            if (shouldDisplay) {
-                                taskList.add(task);
-                            }
-
-                        } catch (Exception e) {
-                            Log.e(TAG,
-                                    "Error parsing task: " + document.getId(), e);
-                        }
-                    }
-                    applyFilter();
-                    progressBar.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading tasks for user", e);
-                    progressBar.setVisibility(View.GONE);
-                    tvEmptyState.setText("Error loading tasks: " + e.getMessage());
-                    llEmptyState.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.GONE);
-                });
+    /**
+     * Built once per snapshot so that queries don't lowercase titles or look up names.
+     */
+    private void rebuildSearchIndex() {
+        searchIndex = new TaskSearchIndex(taskList, userDisplayNameMap);
+    }
+
+    @Override
+    public void onTasksError(Exception e) {
+        if (!isAdded()) return;
+        Log.e(TAG, "Error loading tasks", e);
+        progressBar.setVisibility(View.GONE);
+        tvEmptyState.setText("Error loading tasks: " + e.getMessage());
+        llEmptyState.setVisibility(View.VISIBLE);
+        recyclerView.setVisibility(View.GONE);
+    }
+
+    /**
+     * Re-filters one task against the date, search and status filters and moves, replaces
+     * or drops its entry in filteredTaskList. Uses the statuses already resolved for the
+     * selected day, so it costs no reads; callers submit the list afterwards.
+     */
+    private void updateTaskRow(String taskId) {
+        int oldPosition = indexOfTask(filteredTaskList, taskId);
+        int index = indexOfTask(taskList, taskId);
+
+        Task displayTask = null;
+        if (index >= 0) {
+            List<Task> single = Collections.singletonList(taskList.get(index));
+            if (!applySearchFilter(applyDateFilter(single), currentSearchQuery).isEmpty()) {
+                displayTask = createDisplayTask(taskList.get(index));
+            }
+        }
+
+        if (oldPosition >= 0) {
+            filteredTaskList.remove(oldPosition);
+        }
+        if (displayTask != null) {
+            filteredTaskList.add(sortedPosition(displayTask), displayTask);
+        }
+    }
+
+    private int sortedPosition(Task displayTask) {
+        PriorityComparator comparator = new PriorityComparator();
+        int low = 0;
+        int high = filteredTaskList.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(filteredTaskList.get(mid), displayTask) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOfTask(List<Task> tasks, String taskId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId().equals(taskId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Users see every permanent task and only the additional tasks assigned to them.
+     */
+    private boolean isTaskVisibleToUser(Task task) {
+        String taskType =
+                task.getTaskType() != null
+                        ? task.getTaskType().toLowerCase(Locale.US)
+                        : "permanent";
+        if (taskType.equals("permanent")) {
+            return true;
+        }
+        List<String> assignedTo = task.getAssignedTo();
+        return taskType.equals("additional") &&
+                assignedTo != null && assignedTo.contains(loggedInUserEmail);
     }
 
     @Override
@@ -663,34 +742,23 @@ public class ViewActivityFragment extends Fragment
         }
 
         if ("user".equals(loggedInUserRole)) {
-            long todayStart = getDayStartMillis(System.currentTimeMillis());
+            long todayEpochDay = DateKeys.epochDayOf(System.currentTimeMillis());
             boolean isTaskEditable = true;
 
             if (selectedDateMillis != -1 &&
-                    getDayStartMillis(selectedDateMillis) < todayStart) {
+                    DateKeys.epochDayOf(selectedDateMillis) < todayEpochDay) {
                 isTaskEditable = false;
             }
 
             if (task.getTaskType().equalsIgnoreCase("additional")) {
-                try {
-                    String endDateStr = task.getEndDate();
-                    if (endDateStr != null && !endDateStr.isEmpty()) {
-                        long endDateMillis = dateFormat.parse(endDateStr).getTime();
-                        long endDayStart = getDayStartMillis(endDateMillis);
-
-                        String currentDisplayStatus =
-                                getTaskStatusOnDate(task,
-                                        selectedDateMillis == -1
-                                                ? System.currentTimeMillis()
-                                                : selectedDateMillis);
-
-                        if (todayStart > endDayStart &&
-                                !currentDisplayStatus.equalsIgnoreCase("Completed")) {
-                            isTaskEditable = false;
-                        }
+                long endEpochDay = task.getSchedule().getEndEpochDay();
+                if (endEpochDay != TaskSchedule.NO_DAY) {
+                    String currentDisplayStatus = getTaskStatusOnDate(task);
+
+                    if (todayEpochDay > endEpochDay &&
+                            !currentDisplayStatus.equalsIgnoreCase("Completed")) {
+                        isTaskEditable = false;
                     }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error checking task active status: " + e.getMessage());
                 }
             }
 
@@ -753,9 +821,7 @@ public class ViewActivityFragment extends Fragment
         tvDialogTitle.setText(task.getTitle());
         tvDialogDescription.setText(task.getDescription());
 
-        long currentFilterDate =
-                selectedDateMillis == -1 ? System.currentTimeMillis() : selectedDateMillis;
-        String calculatedStatus = getTaskStatusOnDate(task, currentFilterDate);
+        String calculatedStatus = getTaskStatusOnDate(task);
         String statusDisplay =
                 calculatedStatus.equalsIgnoreCase("Completed") ? "DONE" : "NOT DONE";
         tvDialogStatus.setText("Status: " + statusDisplay);
@@ -849,9 +915,7 @@ public class ViewActivityFragment extends Fragment
                 userDisplayNameMap.getOrDefault(completedByEmail, "Unknown User");
         tvCompletedBy.setText("Completed by: " + displayName);
 
-        SimpleDateFormat sdf =
-                new SimpleDateFormat("MMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
-        String dateStr = sdf.format(new Date(completionTime));
+        String dateStr = DateKeys.formatTimestampDateTime(completionTime);
         tvCompletedDate.setText("📅 " + dateStr);
 
         if (task.isRequireAiCount()) {
@@ -895,7 +959,7 @@ public class ViewActivityFragment extends Fragment
 
         long displayDateMillis =
                 selectedDateMillis == -1 ? System.currentTimeMillis() : selectedDateMillis;
-        String dayOfWeek = dayOfWeekFormat.format(new Date(displayDateMillis));
+        String dayOfWeek = DateKeys.formatDayOfWeek(displayDateMillis);
         tvCurrentDay.setText("📅 " + dayOfWeek);
 
         tvDialogTitle.setText(task.getTitle());
@@ -934,8 +998,7 @@ public class ViewActivityFragment extends Fragment
                 task.getUserAiCount().getOrDefault(loggedInUserEmail, "");
 
         boolean isCompletedOnDate =
-                getTaskStatusOnDate(task, displayDateMillis)
-                        .equalsIgnoreCase("Completed");
+                getTaskStatusOnDate(task).equalsIgnoreCase("Completed");
 
         if (isCompletedOnDate) {
             rbDone.setChecked(true);
@@ -1008,7 +1071,9 @@ public class ViewActivityFragment extends Fragment
                 aiCountInput = "";
             }
 
-            updateTaskInFirestore(task, newStatus, aiCountInput, position, dialog);
+            // Optimistic: the row changes and the dialog closes before the write lands
+            dialog.dismiss();
+            updateTaskInFirestore(task, newStatus, aiCountInput);
         });
 
         btnCancel.setOnClickListener(v -> dialog.dismiss());
@@ -1016,12 +1081,13 @@ public class ViewActivityFragment extends Fragment
     }
 
     /**
-     * Writes per-user maps to task document, and per-day status
-     * to /tasks/{id}/dailyStatus/{yyyy-MM-dd}. Does not overwrite history.
+     * Shows the new status for today at once and writes it in the background: the user's
+     * entries in the task doc, /tasks/{id}/dailyStatus/{yyyy-MM-dd}, /dayIndex and /stats
+     * in one transaction (TaskStatusWriter). Does not overwrite history. A transient failure
+     * queues the change in WriteQueue; if Firestore rejects it the row is rolled back and a
+     * Snackbar offers a retry.
      */
-    private void updateTaskInFirestore(Task task, String newStatus,
-                                       String aiCountValue, int position,
-                                       Dialog dialog) {
+    private void updateTaskInFirestore(Task task, String newStatus, String aiCountValue) {
 
         if (task.getId() == null) {
             Toast.makeText(getContext(),
@@ -1029,14 +1095,8 @@ public class ViewActivityFragment extends Fragment
             return;
         }
 
-        long todayMillis = System.currentTimeMillis();
-        long dayStart = getDayStartMillis(todayMillis);
-        String dateKey = storageDateKeyFormat.format(new Date(dayStart));
-
-        Map<String, String> userStatusMap = task.getUserStatus();
-        userStatusMap.put(loggedInUserEmail, newStatus);
+        String dateKey = DateKeys.dateKeyOf(System.currentTimeMillis());
 
-        Map<String, Long> userCompletedDateMap = task.getUserCompletedDate();
         final long finalCompletionTime;
         if (newStatus.equalsIgnoreCase("Completed") &&
                 (!task.isRequireAiCount() ||
@@ -1045,10 +1105,6 @@ public class ViewActivityFragment extends Fragment
         } else {
             finalCompletionTime = 0L;
         }
-        userCompletedDateMap.put(loggedInUserEmail, finalCompletionTime);
-
-        Map<String, String> userAiCountMap = task.getUserAiCount();
-        userAiCountMap.put(loggedInUserEmail, aiCountValue);
 
         TaskDayStatus dayStatus = new TaskDayStatus(
                 dateKey,
@@ -1057,67 +1113,59 @@ public class ViewActivityFragment extends Fragment
                 finalCompletionTime
         );
 
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        // Mirrored as pending first: survives a restart and renders while offline
+        localSync.queueDayStatus(task.getId(), dayStatus);
+        TaskDayStatus previous = dayStatusMap.get(task.getId());
+        showDayStatus(task.getId(), dateKey, dayStatus);
 
-        Map<String, Object> update = new HashMap<>();
-        update.put("userStatus", userStatusMap);
-        update.put("userCompletedDate", userCompletedDateMap);
-        update.put("userAiCount", userAiCountMap);
-
-        db.collection("tasks").document(task.getId())
-                .update(update)
-                .addOnSuccessListener(aVoid -> {
-                    db.collection("tasks")
-                            .document(task.getId())
-                            .collection("dailyStatus")
-                            .document(dateKey)
-                            .set(dayStatus)
-                            .addOnSuccessListener(v -> {
-                                // UPDATE THE TASK IN taskList WITH FRESH DATA
-                                for (Task t : taskList) {
-                                    if (t.getId().equals(task.getId())) {
-                                        t.setUserStatus(userStatusMap);
-                                        t.setUserCompletedDate(userCompletedDateMap);
-                                        t.setUserAiCount(userAiCountMap);
-                                        break;
-                                    }
-                                }
-
-                                // FORCE RE-APPLY FILTER TO REBUILD THE LIST
-                                applyFilter();
-
-                                String message;
-                                if (newStatus.equalsIgnoreCase("Completed") &&
-                                        (task.isRequireAiCount() &&
-                                                aiCountValue.isEmpty())) {
-                                    message = "Task not updated: AI Count is required to mark as DONE.";
-                                } else {
-                                    message = "Task updated successfully! Status: " +
-                                            (newStatus.equalsIgnoreCase("Completed")
-                                                    ? "DONE" : "NOT DONE");
-                                }
-
-                                Toast.makeText(getContext(), message,
-                                        Toast.LENGTH_SHORT).show();
-                                dialog.dismiss();
-                            })
-                            .addOnFailureListener(e -> {
-                                Log.e(TAG,
-                                        "Error writing daily status for task "
-                                                + task.getId(), e);
-                                Toast.makeText(getContext(),
-                                        "Failed to update daily status: " + e.getMessage(),
-                                        Toast.LENGTH_SHORT).show();
-                            });
-                })
+        // One transaction: only this user's map entries, the day doc, index and counters
+        taskStatusWriter.writeUserStatus(task, loggedInUserEmail, dayStatus)
+                .addOnSuccessListener(v ->
+                        localSync.markDayStatusSynced(task.getId(), dateKey))
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error updating task " + task.getId(), e);
-                    Toast.makeText(getContext(),
-                            "Failed to update task: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
+                    if (WriteQueue.isTransient(e) && getContext() != null) {
+                        // Stays pending and on screen; WriteQueueWorker sends it once online
+                        WriteQueue.enqueueDayStatus(getContext(), task.getId(),
+                                loggedInUserEmail, dayStatus);
+                        Snackbar.make(recyclerView,
+                                "Saved on this device, will sync when online",
+                                Snackbar.LENGTH_SHORT).show();
+                        return;
+                    }
+                    localSync.discardDayStatus(task.getId(), dateKey, previous);
+                    if (!isAdded()) return;
+                    // Skipped if a later tap or a refresh already replaced the optimistic status
+                    if (dayStatusMap.get(task.getId()) == dayStatus) {
+                        showDayStatus(task.getId(), dateKey, previous);
+                    }
+                    Snackbar.make(recyclerView,
+                                    "Failed to update \"" + task.getTitle() + "\"",
+                                    Snackbar.LENGTH_LONG)
+                            .setAction("Retry", retry ->
+                                    updateTaskInFirestore(task, newStatus, aiCountValue))
+                            .show();
                 });
     }
 
+    /**
+     * Puts (or with null removes) a task's status in dayStatusMap and re-places its row,
+     * when dateKey is the day on screen. TaskRepository's snapshot listener delivers the
+     * task doc itself.
+     */
+    private void showDayStatus(String taskId, String dateKey, @Nullable TaskDayStatus dayStatus) {
+        if (!dateKey.equals(getSelectedDateKey())) {
+            return;
+        }
+        if (dayStatus != null) {
+            dayStatusMap.put(taskId, dayStatus);
+        } else {
+            dayStatusMap.remove(taskId);
+        }
+        updateTaskRow(taskId);
+        submitDisplayList();
+    }
+
     private void showDeleteConfirmationDialog(Task taskToDelete, int position) {
         new AlertDialog.Builder(requireContext())
                 .setTitle("Delete Task")
@@ -1139,17 +1187,7 @@ public class ViewActivityFragment extends Fragment
         db.collection("tasks").document(taskToDelete.getId())
                 .delete()
                 .addOnSuccessListener(aVoid -> {
-                    taskList.removeIf(t -> t.getId().equals(taskToDelete.getId()));
-                    if (position >= 0 && position < filteredTaskList.size() &&
-                            filteredTaskList.get(position).getId()
-                                    .equals(taskToDelete.getId())) {
-                        filteredTaskList.remove(position);
-                        taskAdapter.notifyItemRemoved(position);
-                    } else {
-                        applyFilter();
-                    }
-
-                    updateEmptyState();
+                    // The row is removed through the REMOVED change from TaskRepository
                     Toast.makeText(getContext(),
                             "Task deleted successfully!", Toast.LENGTH_SHORT).show();
                 })
@@ -1161,11 +1199,23 @@ public class ViewActivityFragment extends Fragment
                 });
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        searchPipeline.cancel();
+        taskRepository.removeListener(this);
+        userDirectory.removeListener(directoryListener);
+        listeningToTasks = false;
+    }
+
     @Override
     public void onResume() {
         super.onResume();
-        if (loggedInUserEmail != null) {
-            loadTasks();
+        // Task edits arrive as deltas from TaskRepository; only the day statuses, which
+        // are not listened to, are refreshed, one resolve per page as the rows are rebuilt
+        if (loggedInUserEmail != null && listeningToTasks && taskRepository.isLoaded()) {
+            statusDateKey = null;
+            applyFilter();
         }
     }
 }
@@ -5,6 +5,8 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
@@ -17,19 +19,25 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.textfield.TextInputEditText;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,7 +46,6 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
     private RecyclerView recyclerView;
     private MemberAdapter memberAdapter;
     private List<User> memberList;
-    private List<User> filteredMemberList;
     private FirebaseFirestore db;
     private ProgressBar progressBar;
     private TextView tvEmptyState;
@@ -47,6 +54,23 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
 
     private TextInputEditText etSearchQuery;
     private String currentSearchQuery = "";
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::loadMembers;
+
+    // Server-ordered pages of members; the next page is requested once the list is
+    // scrolled within PREFETCH_DISTANCE rows of its end
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 10;
+    // A name search pages through the searchName and searchEmail matches side by side
+    private final List<PageCursor> cursors = new ArrayList<>();
+    private final Set<String> listedIds = new HashSet<>();
+    private boolean hasMorePages = false;
+    private boolean pageLoading = false;
+    private int queryGeneration = 0;
+    // From /migrations/backfill; until every user has searchName and searchEmail, ordering
+    // by them would hide the ones without. Null until read.
+    @Nullable
+    private Boolean searchFieldsBackfilled;
 
     private Set<String> selectedMemberIds = new HashSet<>();
     private boolean isSelectionMode = false;
@@ -63,7 +87,7 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
             getSupportActionBar().setTitle("Account Directory");
         }
 
-        db = FirebaseFirestore.getInstance();
+        db = FirestoreProvider.get();
 
         recyclerView = findViewById(R.id.recycler_view_members);
         progressBar = findViewById(R.id.progress_bar);
@@ -83,11 +107,16 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
         btnDeleteSelected.setOnClickListener(v -> showBulkDeleteConfirmation());
 
         memberList = new ArrayList<>();
-        filteredMemberList = new ArrayList<>();
-        memberAdapter = new MemberAdapter(filteredMemberList, this);
+        memberAdapter = new MemberAdapter(memberList, this);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(memberAdapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                maybeLoadNextPage();
+            }
+        });
 
         setupSearch();
         loadMembers();
@@ -100,8 +129,14 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                currentSearchQuery = s.toString().trim().toLowerCase();
-                applyFilter();
+                String query = s.toString().trim().toLowerCase(Locale.ROOT);
+                if (query.equals(currentSearchQuery)) {
+                    return;
+                }
+                currentSearchQuery = query;
+                // Debounced: a burst of keystrokes results in a single query
+                searchHandler.removeCallbacks(searchRunnable);
+                searchHandler.postDelayed(searchRunnable, SearchPipeline.DEFAULT_DEBOUNCE_MILLIS);
             }
 
             @Override
@@ -109,27 +144,8 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
         });
     }
 
-    private void applyFilter() {
-        filteredMemberList.clear();
-
-        if (currentSearchQuery.isEmpty()) {
-            filteredMemberList.addAll(memberList);
-        } else {
-            for (User user : memberList) {
-                String displayName = user.getDisplayName() != null ? user.getDisplayName().toLowerCase() : "";
-                String email = user.getEmail() != null ? user.getEmail().toLowerCase() : "";
-
-                if (displayName.contains(currentSearchQuery) || email.contains(currentSearchQuery)) {
-                    filteredMemberList.add(user);
-                }
-            }
-        }
-        memberAdapter.notifyDataSetChanged();
-        updateEmptyState();
-    }
-
     private void updateEmptyState() {
-        if (filteredMemberList.isEmpty()) {
+        if (memberList.isEmpty()) {
             tvEmptyState.setText("No members found matching the search criteria.");
             tvEmptyState.setVisibility(View.VISIBLE);
             recyclerView.setVisibility(View.GONE);
@@ -254,39 +270,197 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
         }
     }
 
+    /**
+     * Restarts the directory at its first page for the current search query.
+     */
     private void loadMembers() {
+        searchHandler.removeCallbacks(searchRunnable);
         progressBar.setVisibility(View.VISIBLE);
         tvEmptyState.setVisibility(View.GONE);
-        recyclerView.setVisibility(View.GONE);
 
-        db.collection("users")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    memberList.clear();
+        loadMemberCount();
+
+        final int generation = ++queryGeneration;
+        memberList.clear();
+        memberAdapter.notifyDataSetChanged();
+        cursors.clear();
+        listedIds.clear();
+        hasMorePages = true;
+        pageLoading = false;
+        if (searchFieldsBackfilled != null) {
+            startCursors();
+            loadNextPage();
+            return;
+        }
+        EpochDayBackfillWorker.stateRef(db).get().addOnCompleteListener(read -> {
+            searchFieldsBackfilled = read.isSuccessful() && EpochDayBackfillWorker.isDone(
+                    read.getResult(), EpochDayBackfillWorker.STEP_SEARCH_FIELDS);
+            if (generation == queryGeneration && !isFinishing()) {
+                startCursors();
+                loadNextPage();
+            }
+        });
+    }
+
+    /**
+     * Position in one server-ordered stream of members; field is null for the unordered
+     * fallback.
+     */
+    private static class PageCursor {
+        @Nullable
+        final String field;
+        @Nullable
+        DocumentSnapshot lastDocument;
+        boolean hasMore = true;
+
+        PageCursor(@Nullable String field) {
+            this.field = field;
+        }
+    }
+
+    /**
+     * Members ordered by name, filtered on the server (composite indexes in
+     * firestore.indexes.json). A query is matched as a prefix of the lowercased display
+     * name (searchName) and of the lowercased email (searchEmail); one containing "@"
+     * only as an email. Until EpochDayBackfillWorker has written both fields everywhere,
+     * the directory pages through the unordered members instead and search matches on
+     * the client (see matchesSearch).
+     */
+    private void startCursors() {
+        if (!Boolean.TRUE.equals(searchFieldsBackfilled)) {
+            cursors.add(new PageCursor(null));
+        } else if (currentSearchQuery.isEmpty()) {
+            cursors.add(new PageCursor("searchName"));
+        } else {
+            if (!currentSearchQuery.contains("@")) {
+                cursors.add(new PageCursor("searchName"));
+            }
+            cursors.add(new PageCursor("searchEmail"));
+        }
+    }
+
+    private Query memberQuery(PageCursor cursor) {
+        // Admins live in "admins"; the role filter only skips legacy non-member docs
+        String prefix = currentSearchQuery;
+        Query query = db.collection("users").whereEqualTo("role", "user");
+        if (cursor.field == null) {
+            if (cursor.lastDocument != null) {
+                query = query.startAfter(cursor.lastDocument);
+            }
+            return query.limit(PAGE_SIZE);
+        }
+        query = query.orderBy(cursor.field);
+        if (cursor.lastDocument != null) {
+            query = query.startAfter(cursor.lastDocument);
+        } else if (!prefix.isEmpty()) {
+            query = query.startAt(prefix);
+        }
+        if (!prefix.isEmpty()) {
+            query = query.endAt(prefix + "\uf8ff");
+        }
+        return query.limit(PAGE_SIZE);
+    }
 
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            User user = document.toObject(User.class);
-                            if (user != null && "user".equalsIgnoreCase(user.getRole())) {
+    private void loadNextPage() {
+        // No cursors yet while /migrations/backfill is being read
+        if (pageLoading || !hasMorePages || cursors.isEmpty()) {
+            return;
+        }
+        pageLoading = true;
+        final int generation = queryGeneration;
+        boolean serverFiltered = cursors.get(0).field != null;
+        List<PageCursor> reading = new ArrayList<>();
+        List<com.google.android.gms.tasks.Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (PageCursor cursor : cursors) {
+            if (cursor.hasMore) {
+                reading.add(cursor);
+                reads.add(memberQuery(cursor).get());
+            }
+        }
+        Tasks.<QuerySnapshot>whenAllSuccess(reads)
+                .addOnSuccessListener(results -> {
+                    if (generation != queryGeneration || isFinishing()) {
+                        return;
+                    }
+                    pageLoading = false;
+                    int start = memberList.size();
+                    hasMorePages = false;
+                    for (int i = 0; i < reading.size(); i++) {
+                        PageCursor cursor = reading.get(i);
+                        QuerySnapshot queryDocumentSnapshots = results.get(i);
+                        cursor.hasMore = queryDocumentSnapshots.size() == PAGE_SIZE;
+                        hasMorePages |= cursor.hasMore;
+                        if (!queryDocumentSnapshots.isEmpty()) {
+                            List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+                            cursor.lastDocument = documents.get(documents.size() - 1);
+                        }
+
+                        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                            try {
+                                User user = document.toObject(User.class);
                                 user.setDocumentId(document.getId());
-                                memberList.add(user);
+                                // A member matching by name and by email comes in twice
+                                if ((serverFiltered || matchesSearch(user))
+                                        && listedIds.add(document.getId())) {
+                                    memberList.add(user);
+                                }
+                            } catch (Exception e) {
+                                Log.e(TAG, "Error parsing user: " + document.getId(), e);
                             }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing user: " + document.getId(), e);
                         }
                     }
-
-                    applyFilter();
+                    memberAdapter.notifyItemRangeInserted(start, memberList.size() - start);
                     progressBar.setVisibility(View.GONE);
+                    updateEmptyState();
+                    // Keeps loading until the rows fill the screen plus the prefetch margin
+                    recyclerView.post(this::maybeLoadNextPage);
                 })
                 .addOnFailureListener(e -> {
+                    if (generation != queryGeneration || isFinishing()) {
+                        return;
+                    }
                     Log.e(TAG, "Error loading members", e);
+                    pageLoading = false;
+                    hasMorePages = false;
                     progressBar.setVisibility(View.GONE);
-                    tvEmptyState.setText("Error loading members: " + e.getMessage());
-                    tvEmptyState.setVisibility(View.VISIBLE);
+                    if (memberList.isEmpty()) {
+                        tvEmptyState.setText("Error loading members: " + e.getMessage());
+                        tvEmptyState.setVisibility(View.VISIBLE);
+                        recyclerView.setVisibility(View.GONE);
+                    } else {
+                        Toast.makeText(this, "Error loading more members: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
                 });
     }
 
+    private boolean matchesSearch(User user) {
+        return currentSearchQuery.isEmpty()
+                || User.searchNameOf(user.getDisplayName()).startsWith(currentSearchQuery)
+                || User.searchEmailOf(user.getEmail()).startsWith(currentSearchQuery);
+    }
+
+    private void maybeLoadNextPage() {
+        if (pageLoading || !hasMorePages) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager != null && layoutManager.findLastVisibleItemPosition()
+                >= memberList.size() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Headline total as a count() aggregation, independent of the list download.
+     */
+    private void loadMemberCount() {
+        new CountService(db).countMembers(count -> {
+            if (getSupportActionBar() != null) {
+                getSupportActionBar().setSubtitle(count + (count == 1 ? " member" : " members"));
+            }
+        });
+    }
+
     private void showDeleteConfirmationDialog(User userToDelete) {
         if (userToDelete.getDocumentId() == null) {
             Toast.makeText(this, "Cannot delete member without ID.", Toast.LENGTH_SHORT).show();
@@ -310,7 +484,8 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(this, "Member deleted successfully.", Toast.LENGTH_LONG).show();
                     memberList.remove(user);
-                    applyFilter();
+                    memberAdapter.notifyDataSetChanged();
+                    updateEmptyState();
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error deleting member: ", e);
@@ -380,6 +555,7 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
 
         Map<String, Object> updates = new java.util.HashMap<>();
         updates.put("email", newEmail);
+        updates.put("searchEmail", User.searchEmailOf(newEmail));
         updates.put("password", newPassword);
 
         db.collection(collectionPath)
@@ -389,8 +565,9 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
                     Toast.makeText(this, "Member updated successfully. Preparing SMS notification...", Toast.LENGTH_LONG).show();
 
                     originalUser.setEmail(newEmail);
+                    originalUser.setSearchEmail(User.searchEmailOf(newEmail));
                     originalUser.setPassword(newPassword);
-                    applyFilter();
+                    memberAdapter.notifyDataSetChanged();
 
                     sendUpdateNotificationSMS(originalUser, newEmail, newPassword);
                 })
@@ -436,4 +613,10 @@ public class ViewMembersActivity extends AppCompatActivity implements MemberAdap
             super.onBackPressed();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(searchRunnable);
+    }
+}
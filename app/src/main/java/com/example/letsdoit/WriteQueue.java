@@ -0,0 +1,310 @@
+// src/main/java/com/example/letsdoit/WriteQueue.java
+package com.example.letsdoit;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Durable outbox for status changes whose write failed for a transient
+ * reason (no connection, timeout, server unavailable). Entries live in LocalStore's outbox
+ * table, so they survive a restart; a newer write to the same task and date replaces the
+ * queued one. WriteQueueWorker flushes the queue once the device is connected, in queue
+ * order, up to BATCH_SIZE entries per transaction, with WorkManager's exponential backoff
+ * between failed attempts. Status entries read their previous day doc inside that
+ * transaction, like TaskStatusWriter, so the /stats counters move from the server's
+ * current value.
+ * Rejected writes (e.g. the task was deleted) are dropped, and so is an entry after
+ * MAX_ATTEMPTS transient failures.
+ */
+public class WriteQueue {
+
+    private static final String TAG = "WriteQueue";
+
+    static final String KIND_DAY_STATUS = "dayStatus";
+    // A status change is two reads and at most four writes; Firestore allows 500 writes
+    // per transaction
+    static final int BATCH_SIZE = 50;
+    static final int MAX_ATTEMPTS = 12;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /**
+     * Runs a transaction; replaced in tests to inject failures.
+     */
+    interface Committer {
+        com.google.android.gms.tasks.Task<Void> run(Transaction.Function<Void> function);
+    }
+
+    /**
+     * One queued write. The payload is the day status as JSON.
+     */
+    public static class Entry {
+        private final long id;
+        private final String kind;
+        private final String taskId;
+        private final String dateKey;
+        private final String email;
+        private final String payload;
+        private final int attempts;
+
+        public Entry(long id, String kind, String taskId, String dateKey, String email,
+                     String payload, int attempts) {
+            this.id = id;
+            this.kind = kind;
+            this.taskId = taskId;
+            this.dateKey = dateKey;
+            this.email = email;
+            this.payload = payload;
+            this.attempts = attempts;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public String getDateKey() {
+            return dateKey;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final LocalStore store;
+    private final TaskStatusWriter statusWriter;
+    private final Committer committer;
+
+    public WriteQueue(FirebaseFirestore db, LocalStore store) {
+        this(db, store, db::runTransaction);
+    }
+
+    WriteQueue(FirebaseFirestore db, LocalStore store, Committer committer) {
+        this.db = db;
+        this.store = store;
+        this.statusWriter = new TaskStatusWriter(db);
+        this.committer = committer;
+    }
+
+    // --- Enqueueing, from the main thread ---
+
+    /**
+     * Queues a status change TaskStatusWriter.writeUserStatus could not send. The local
+     * day status should stay pending; the flush marks it synced.
+     */
+    public static void enqueueDayStatus(Context context, String taskId, String email,
+                                        TaskDayStatus dayStatus) {
+        enqueue(context, dayStatusEntry(taskId, email, dayStatus));
+    }
+
+    private static void enqueue(Context context, Entry entry) {
+        Context appContext = context.getApplicationContext();
+        // Scheduled after the insert, so the worker can't run before the entry exists
+        LocalSync.getInstance(appContext).queueWrite(entry,
+                () -> WriteQueueWorker.schedule(appContext));
+    }
+
+    static Entry dayStatusEntry(String taskId, String email, TaskDayStatus dayStatus) {
+        JSONObject payload = new JSONObject();
+        try {
+            payload.put("status", dayStatus.getStatus());
+            payload.put("aiCountValue", dayStatus.getAiCountValue());
+            payload.put("completedAt", dayStatus.getCompletedAt());
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Unencodable day status", e);
+        }
+        return new Entry(0, KIND_DAY_STATUS, taskId, dayStatus.getDateKey(), email,
+                payload.toString(), 0);
+    }
+
+    /**
+     * True for failures worth retrying later: timeouts, I/O errors and the Firestore codes
+     * of an unreachable or overloaded backend. Anything else is treated as a rejection of
+     * the write itself (permissions, missing document, invalid data, bugs) and logged.
+     */
+    public static boolean isTransient(Exception e) {
+        Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        if (cause instanceof TimeoutException || cause instanceof IOException) {
+            return true;
+        }
+        if (cause instanceof FirebaseFirestoreException) {
+            switch (((FirebaseFirestoreException) cause).getCode()) {
+                case UNAVAILABLE:
+                case DEADLINE_EXCEEDED:
+                case ABORTED:
+                case RESOURCE_EXHAUSTED:
+                    return true;
+                default:
+                    break;
+            }
+        }
+        Log.w(TAG, "Permanent write failure", cause);
+        return false;
+    }
+
+    // --- Flushing, on a worker thread ---
+
+    /**
+     * Sends queued writes until the queue is empty (true) or a transient failure leaves
+     * entries for a later attempt (false). Blocks on every read and commit.
+     */
+    public boolean flush() throws InterruptedException {
+        List<Entry> entries;
+        while (!(entries = store.getQueuedWrites(BATCH_SIZE)).isEmpty()) {
+            try {
+                commit(entries);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    Log.w(TAG, "Flush failed, retrying later: " + e.getMessage());
+                    recordAttempts(entries);
+                    return false;
+                }
+                // One rejected entry fails the whole transaction; resend one by one to find it
+                Log.w(TAG, "Batch rejected, resending entries one by one", e);
+                if (!commitOneByOne(entries)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean commitOneByOne(List<Entry> entries) throws InterruptedException {
+        for (Entry entry : entries) {
+            try {
+                commit(Collections.singletonList(entry));
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    recordAttempts(entries.subList(entries.indexOf(entry), entries.size()));
+                    return false;
+                }
+                drop(entry, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends the entries in one transaction; on success they leave the queue. Entries whose
+     * task no longer exists are dropped without a write.
+     */
+    private void commit(List<Entry> entries) throws Exception {
+        // Parsed up front: a transaction function may run several times
+        List<TaskDayStatus> statuses = new ArrayList<>();
+        for (Entry entry : entries) {
+            statuses.add(toDayStatus(entry, new JSONObject(entry.getPayload())));
+        }
+
+        List<Entry> missing = new ArrayList<>();
+        await(committer.run(transaction -> {
+            missing.clear();
+            // Every read comes before the first write, as transactions require
+            List<Task> tasks = new ArrayList<>();
+            List<TaskDayStatus> previous = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                Task task = null;
+                TaskDayStatus before = null;
+                DocumentSnapshot taskDoc = transaction.get(
+                        db.collection("tasks").document(entry.getTaskId()));
+                if (taskDoc.exists()) {
+                    task = taskDoc.toObject(Task.class);
+                    task.setId(taskDoc.getId());
+                    before = statusWriter.readPrevious(transaction, entry.getTaskId(),
+                            entry.getDateKey());
+                } else {
+                    missing.add(entry);
+                }
+                tasks.add(task);
+                previous.add(before);
+            }
+
+            for (int i = 0; i < entries.size(); i++) {
+                if (tasks.get(i) != null) {
+                    statusWriter.addUserStatus(transaction, tasks.get(i),
+                            entries.get(i).getEmail(), previous.get(i), statuses.get(i));
+                }
+            }
+            return null;
+        }));
+
+        for (Entry entry : entries) {
+            if (missing.contains(entry)) {
+                drop(entry, null);
+                continue;
+            }
+            store.deleteQueuedWrite(entry.getId());
+            store.markDayStatusSynced(entry.getTaskId(), entry.getDateKey());
+        }
+    }
+
+    private static TaskDayStatus toDayStatus(Entry entry, JSONObject payload)
+            throws JSONException {
+        return new TaskDayStatus(entry.getDateKey(),
+                payload.getString("status"),
+                payload.optString("aiCountValue"),
+                payload.optLong("completedAt"));
+    }
+
+    private void recordAttempts(List<Entry> entries) {
+        for (Entry entry : entries) {
+            if (entry.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                Log.e(TAG, "Giving up on " + entry.getKind() + " of " + entry.getTaskId()
+                        + " after " + MAX_ATTEMPTS + " attempts");
+                drop(entry, null);
+            } else {
+                store.recordWriteAttempt(entry.getId());
+            }
+        }
+    }
+
+    private void drop(Entry entry, @Nullable Exception cause) {
+        Log.e(TAG, "Dropping " + entry.getKind() + " of " + entry.getTaskId(), cause);
+        store.deleteQueuedWrite(entry.getId());
+        // Never reaches Firestore; the next resolve shows the server's status again
+        store.discardDayStatus(entry.getTaskId(), entry.getDateKey(), null);
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,58 @@
+// src/main/java/com/example/letsdoit/WriteQueueWorker.java
+package com.example.letsdoit;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes WriteQueue once the device is connected. Retried with exponential backoff
+ * (30 s, 1 min, 2 min, ... capped by WorkManager at 5 h) while writes are left.
+ */
+public class WriteQueueWorker extends Worker {
+
+    private static final String WORK_NAME = "write-queue-flush";
+
+    public WriteQueueWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Keeps an already scheduled flush: it reads the queue when it runs, so it also sends
+     * entries queued after it was scheduled.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(WriteQueueWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        WriteQueue queue = new WriteQueue(FirestoreProvider.get(),
+                LocalStore.getInstance(getApplicationContext()));
+        try {
+            return queue.flush() ? Result.success() : Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+}
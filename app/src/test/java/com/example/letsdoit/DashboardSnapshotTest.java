@@ -0,0 +1,93 @@
+package com.example.letsdoit;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the one-pass dashboard computation.
+ */
+public class DashboardSnapshotTest {
+
+    private static final long SUNDAY = 20093; // Jan 05 2025
+    private static final String DATE_KEY = "2025-01-05";
+    private static final String ALICE = "alice@example.com";
+
+    @Test
+    public void activeTasks_appliesVisibilityAndSchedule() {
+        Task sundays = permanent("p1", "Sun");
+        Task mondays = permanent("p2", "Mon");
+        Task assigned = additional("a1", ALICE, "Jan 01, 2025", "Jan 10, 2025");
+        Task notAssigned = additional("a2", "bob@example.com", "Jan 01, 2025", "Jan 10, 2025");
+        Task ended = additional("a3", ALICE, "Dec 01, 2024", "Dec 31, 2024");
+        List<Task> tasks = Arrays.asList(sundays, mondays, assigned, notAssigned, ended);
+
+        assertEquals(Arrays.asList(sundays, assigned),
+                DashboardSnapshot.activeTasks(tasks, ALICE, "user", SUNDAY));
+        assertEquals(Arrays.asList(sundays, assigned, notAssigned),
+                DashboardSnapshot.activeTasks(tasks, ALICE, "admin", SUNDAY));
+    }
+
+    @Test
+    public void fromStatuses_splitsInOnePass() {
+        Task done = permanent("p1", "Sun");
+        Task missingAiCount = permanent("p2", "Sun");
+        missingAiCount.setRequireAiCount(true);
+        Task noStatus = additional("a1", ALICE, "Jan 01, 2025", "Jan 10, 2025");
+        Map<String, TaskDayStatus> statuses = new HashMap<>();
+        statuses.put("p1", new TaskDayStatus(DATE_KEY, "Completed", "", 1L));
+        statuses.put("p2", new TaskDayStatus(DATE_KEY, "Completed", "", 1L));
+
+        DashboardSnapshot snapshot = DashboardSnapshot.fromStatuses(DATE_KEY,
+                Arrays.asList(done, missingAiCount, noStatus), statuses);
+
+        assertTrue(snapshot.hasLists());
+        assertEquals(Collections.singletonList(done), snapshot.getDoneTasks());
+        assertEquals(Arrays.asList(missingAiCount, noStatus), snapshot.getPendingTasks());
+        assertEquals(3, snapshot.getTotal());
+        assertEquals(1, snapshot.getDone());
+        assertEquals(2, snapshot.getPending());
+        assertEquals(33, snapshot.getDonePercent());
+    }
+
+    @Test
+    public void fromDoneCount_capsCounterWithoutLists() {
+        List<Task> active = Collections.singletonList(permanent("p1", "Sun"));
+
+        DashboardSnapshot snapshot = DashboardSnapshot.fromDoneCount(DATE_KEY, active, 4);
+
+        assertFalse(snapshot.hasLists());
+        assertEquals(1, snapshot.getDone());
+        assertEquals(0, snapshot.getPending());
+        assertEquals(100, snapshot.getDonePercent());
+        assertEquals(0, DashboardSnapshot.fromDoneCount(DATE_KEY,
+                Collections.emptyList(), 0).getDonePercent());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void lists_areImmutable() {
+        DashboardSnapshot.fromStatuses(DATE_KEY, Collections.singletonList(permanent("p1", "Sun")),
+                Collections.emptyMap()).getPendingTasks().clear();
+    }
+
+    private static Task permanent(String id, String day) {
+        Task task = new Task("Task " + id, "", "medium", "", Collections.emptyList(),
+                "", "", false, "Permanent");
+        task.setId(id);
+        task.setSelectedDays(Collections.singletonList(day));
+        return task;
+    }
+
+    private static Task additional(String id, String assignee, String startDate, String endDate) {
+        Task task = new Task("Task " + id, "", "medium", "", Collections.singletonList(assignee),
+                startDate, endDate, false, "Additional");
+        task.setId(id);
+        return task;
+    }
+}
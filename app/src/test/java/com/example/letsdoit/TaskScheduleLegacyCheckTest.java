@@ -0,0 +1,107 @@
+package com.example.letsdoit;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the cached TaskSchedule agrees with the SimpleDateFormat/Calendar date
+ * filter it replaced, over a mix of Permanent and Additional tasks and 60 days.
+ */
+public class TaskScheduleLegacyCheckTest {
+
+    private static final int TASKS = 2_000;
+    private static final int DAYS = 60;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+    private final SimpleDateFormat dayFormat = new SimpleDateFormat("EEE", Locale.US);
+
+    @Test
+    public void compiledSchedule_matchesLegacyCheck() throws Exception {
+        List<Task> tasks = buildTasks();
+        long firstDayMillis = dateFormat.parse("Jan 01, 2025").getTime();
+
+        assertEquals(runLegacy(tasks, firstDayMillis), runCompiled(tasks, firstDayMillis));
+    }
+
+    private List<Task> buildTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setId("task-" + i);
+            if (i % 2 == 0) {
+                task.setTaskType("Permanent");
+                task.setSelectedDays(Arrays.asList("Mon", "Wed", "Fri"));
+            } else {
+                task.setTaskType("Additional");
+                task.setStartDate(String.format(Locale.US, "Jan %02d, 2025", 1 + i % 28));
+                task.setEndDate(String.format(Locale.US, "Feb %02d, 2025", 1 + i % 28));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private int runCompiled(List<Task> tasks, long firstDayMillis) {
+        long firstEpochDay = TaskSchedule.epochDayOf(firstDayMillis);
+        int active = 0;
+        for (int day = 0; day < DAYS; day++) {
+            long epochDay = firstEpochDay + day;
+            for (Task task : tasks) {
+                if (task.getSchedule().isActiveOn(epochDay)) {
+                    active++;
+                }
+            }
+        }
+        return active;
+    }
+
+    // The per-task logic that ViewActivityFragment/HomeFragment/DailyNotificationReceiver used
+    private int runLegacy(List<Task> tasks, long firstDayMillis) throws Exception {
+        int active = 0;
+        for (int day = 0; day < DAYS; day++) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(firstDayMillis);
+            calendar.add(Calendar.DAY_OF_MONTH, day);
+            long dayMillis = calendar.getTimeInMillis();
+            long dayStart = getDayStartMillis(dayMillis);
+            String dayShort = dayFormat.format(new Date(dayMillis)).toLowerCase(Locale.US);
+
+            for (Task task : tasks) {
+                if (task.getTaskType().equalsIgnoreCase("permanent")) {
+                    for (String d : task.getSelectedDays()) {
+                        if (d.trim().toLowerCase(Locale.US).equals(dayShort)) {
+                            active++;
+                            break;
+                        }
+                    }
+                } else {
+                    long start = getDayStartMillis(dateFormat.parse(task.getStartDate()).getTime());
+                    long end = getDayStartMillis(dateFormat.parse(task.getEndDate()).getTime());
+                    if (dayStart >= start && dayStart <= end) {
+                        active++;
+                    }
+                }
+            }
+        }
+        return active;
+    }
+
+    private long getDayStartMillis(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.letsdoit;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for TaskSchedule, checked against the SimpleDateFormat/Calendar logic
+ * it replaces.
+ */
+public class TaskScheduleTest {
+
+    @Test
+    public void epochDay_matchesKnownDates() {
+        assertEquals(0, TaskSchedule.epochDay(1970, 1, 1));
+        assertEquals(-1, TaskSchedule.epochDay(1969, 12, 31));
+        assertEquals(11017, TaskSchedule.epochDay(2000, 3, 1));
+        assertEquals(19782, TaskSchedule.epochDay(2024, 2, 29));
+        assertEquals(20093, TaskSchedule.epochDay(2025, 1, 5));
+    }
+
+    @Test
+    public void dayOfWeekIndex_startsOnMonday() {
+        assertEquals(3, TaskSchedule.dayOfWeekIndex(0));     // Thu, Jan 01 1970
+        assertEquals(2, TaskSchedule.dayOfWeekIndex(-1));    // Wed, Dec 31 1969
+        assertEquals(6, TaskSchedule.dayOfWeekIndex(20093)); // Sun, Jan 05 2025
+    }
+
+    @Test
+    public void parseDate_matchesSimpleDateFormat() throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+        for (String date : Arrays.asList("Jan 05, 2025", "Feb 29, 2024", "Dec 31, 1999",
+                "Mar 1, 2023", "Feb 30, 2023")) {
+            long expected = TaskSchedule.epochDayOf(format.parse(date).getTime());
+            assertEquals(date, expected, TaskSchedule.parseDate(date));
+        }
+    }
+
+    @Test
+    public void parseDate_rejectsMalformedDates() {
+        assertEquals(TaskSchedule.NO_DAY, TaskSchedule.parseDate(null));
+        assertEquals(TaskSchedule.NO_DAY, TaskSchedule.parseDate(""));
+        assertEquals(TaskSchedule.NO_DAY, TaskSchedule.parseDate("2025-01-05"));
+        assertEquals(TaskSchedule.NO_DAY, TaskSchedule.parseDate("Foo 05, 2025"));
+    }
+
+    @Test
+    public void newTask_storesEpochDaysOfItsRange() {
+        Task additional = new Task("Title", "", "medium", "", Collections.emptyList(),
+                "Jan 05, 2025", "Jan 10, 2025", false, "Additional");
+        assertEquals(Long.valueOf(20093), additional.getStartEpochDay());
+        assertEquals(Long.valueOf(20098), additional.getEndEpochDay());
+
+        Task permanent = new Task("Title", "", "medium", "", Collections.emptyList(),
+                "", "", false, "Permanent");
+        assertNull(permanent.getStartEpochDay());
+        assertNull(permanent.getEndEpochDay());
+    }
+
+    @Test
+    public void permanentTask_isActiveOnSelectedWeekdays() {
+        Task task = new Task();
+        task.setTaskType("Permanent");
+        task.setSelectedDays(Arrays.asList("Mon", " wed ", "FRI"));
+
+        long monday = TaskSchedule.epochDay(2025, 1, 6);
+        assertTrue(task.getSchedule().isActiveOn(monday));
+        assertFalse(task.getSchedule().isActiveOn(monday + 1));
+        assertTrue(task.getSchedule().isActiveOn(monday + 2));
+        assertTrue(task.getSchedule().isActiveOn(monday + 4));
+        assertFalse(task.getSchedule().isActiveOn(monday + 6));
+        assertEquals(0b10101, task.getSchedule().getWeekdayMask());
+    }
+
+    @Test
+    public void additionalTask_isActiveWithinInclusiveRange() {
+        Task task = new Task();
+        task.setTaskType("Additional");
+        task.setStartDate("Jan 05, 2025");
+        task.setEndDate("Jan 07, 2025");
+
+        long start = TaskSchedule.epochDay(2025, 1, 5);
+        assertFalse(task.getSchedule().isActiveOn(start - 1));
+        assertTrue(task.getSchedule().isActiveOn(start));
+        assertTrue(task.getSchedule().isActiveOn(start + 2));
+        assertFalse(task.getSchedule().isActiveOn(start + 3));
+    }
+
+    @Test
+    public void additionalTask_withoutBothDates_isNeverActive() {
+        Task task = new Task();
+        task.setTaskType("Additional");
+        task.setStartDate("Jan 05, 2025");
+
+        assertFalse(task.getSchedule().isActiveOn(TaskSchedule.epochDay(2025, 1, 5)));
+    }
+
+    @Test
+    public void setters_invalidateCachedSchedule() {
+        Task task = new Task();
+        task.setTaskType("Permanent");
+        task.setSelectedDays(Collections.singletonList("Mon"));
+        long monday = TaskSchedule.epochDay(2025, 1, 6);
+        assertTrue(task.getSchedule().isActiveOn(monday));
+
+        task.setSelectedDays(Collections.singletonList("Tue"));
+        assertFalse(task.getSchedule().isActiveOn(monday));
+
+        task.setTaskType("Additional");
+        task.setStartDate("Jan 06, 2025");
+        task.setEndDate("Jan 06, 2025");
+        assertTrue(task.getSchedule().isActiveOn(monday));
+    }
+}